@@ -0,0 +1,79 @@
+package ar.edu.itba.ss.benchmark;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.PrimitiveGrid;
+import ar.edu.itba.ss.models.TraversalOffset;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import ar.edu.itba.ss.models.methods.PrimitiveCellIndexMethod;
+import ar.edu.itba.ss.models.methods.SearchCounters;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PCIM with the particles in input order against the same particles sorted by the Z-order code of their cell.
+ * The density is kept constant, so large N means a large grid that does not fit in cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MortonOrderBenchmark {
+
+    private static final long SEED = 20240603L;
+    private static final double DENSITY = 5.0;
+    private static final double RC = 1.0;
+    private static final double R = 0.25;
+
+    @Param({"100000", "1000000"})
+    public int n;
+
+    @Param({"false", "true"})
+    public boolean mortonOrder;
+
+    private List<SurfaceEntity<Particle>> particles;
+    private PrimitiveGrid grid;
+    private int l;
+    private int m;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        l = (int) Math.ceil(Math.sqrt(n / DENSITY));
+        m = (int) Math.floor(l / (RC + 2 * R));
+        particles = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(R), random.nextDouble() * l, random.nextDouble() * l));
+        }
+        grid = PrimitiveCellIndexMethod.toGrid(l, m, particles, mortonOrder);
+    }
+
+    @Benchmark
+    public NeighbourList neighbourSearch() {
+        return PrimitiveCellIndexMethod.calculateNeighbourList(l, m, RC, particles, mortonOrder);
+    }
+
+    /**
+     * Binning, including the reordering, without building the neighbour list.
+     */
+    @Benchmark
+    public PrimitiveGrid binning() {
+        return PrimitiveCellIndexMethod.toGrid(l, m, particles, mortonOrder);
+    }
+
+    /**
+     * Traversal of a grid built once per trial, the part of the search that depends on memory locality.
+     */
+    @Benchmark
+    public long traversal() {
+        SearchCounters counters = new SearchCounters();
+        PrimitiveCellIndexMethod.cellIndexMethod(grid, RC, TraversalOffset.L_NEIGHBOURS, (current, neighbour, distance) -> { }, counters);
+        return counters.getAcceptedPairs();
+    }
+}
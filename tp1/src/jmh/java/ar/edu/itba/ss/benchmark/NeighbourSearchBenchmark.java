@@ -0,0 +1,111 @@
+package ar.edu.itba.ss.benchmark;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import ar.edu.itba.ss.models.methods.BruteForce;
+import ar.edu.itba.ss.models.methods.CellIndexMethod;
+import ar.edu.itba.ss.models.methods.KdTreeMethod;
+import ar.edu.itba.ss.models.methods.PrimitiveCellIndexMethod;
+import ar.edu.itba.ss.models.methods.SearchCounters;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Neighbour search throughput for every backend. The particles are generated once per trial from a
+ * fixed seed, so two runs with the same parameters measure the same configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class NeighbourSearchBenchmark {
+
+    private static final long SEED = 20240603L;
+    private static final int CLUSTERS = 10;
+
+    @Param({"1000", "10000"})
+    public int n;
+
+    @Param({"20"})
+    public int l;
+
+    @Param({"1.0"})
+    public double rc;
+
+    @Param({"0.25"})
+    public double r;
+
+    /**
+     * 0 uses the same M as Main: floor(L / (rc + 2 * maxR)).
+     */
+    @Param({"0"})
+    public int m;
+
+    @Param({"CONSTANT", "UNIFORM"})
+    public String radiusDistribution;
+
+    /**
+     * CLUSTERED draws the positions around CLUSTERS gaussian centers of deviation L / 50, so most
+     * cells are empty and a few hold most of the particles.
+     */
+    @Param({"UNIFORM", "CLUSTERED"})
+    public String positions;
+
+    @Param({"CIM", "PCIM", "PACKED", "BF", "TBF", "KDT"})
+    public String backend;
+
+    private List<SurfaceEntity<Particle>> particles;
+    private int cells;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        double[] centers = new double[2 * CLUSTERS];
+        for (int c = 0; c < centers.length; c++) {
+            centers[c] = random.nextDouble() * l;
+        }
+
+        particles = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double radius = radiusDistribution.equals("UNIFORM") ? random.nextDouble() * r : r;
+            double x, y;
+            if (positions.equals("CLUSTERED")) {
+                int c = random.nextInt(CLUSTERS);
+                x = Math.min(l, Math.max(0, centers[2 * c] + random.nextGaussian() * l / 50));
+                y = Math.min(l, Math.max(0, centers[2 * c + 1] + random.nextGaussian() * l / 50));
+            } else {
+                x = random.nextDouble() * l;
+                y = random.nextDouble() * l;
+            }
+            particles.add(new SurfaceEntity<>(new Particle(radius), x, y));
+        }
+        cells = m > 0 ? m : (int) Math.floor(l / (rc + 2 * r));
+    }
+
+    @Benchmark
+    public NeighbourList neighbourSearch() {
+        switch (backend) {
+            case "CIM":
+                return CellIndexMethod.calculateNeighbourList(l, cells, rc, particles, 1);
+            case "PCIM":
+                return PrimitiveCellIndexMethod.calculateNeighbourList(l, cells, rc, particles);
+            case "PACKED":
+                return PrimitiveCellIndexMethod.calculatePackedNeighbourList(l, cells, rc, particles, new SearchCounters());
+            case "BF":
+                return BruteForce.calculateNeighbourList(particles, rc);
+            case "TBF":
+                return BruteForce.calculateNeighbourList(particles, rc, 1);
+            case "KDT":
+                return KdTreeMethod.calculateNeighbourList(l, rc, particles, false);
+            default:
+                throw new IllegalArgumentException("Unknown backend: " + backend);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ar.edu.itba.ss.benchmark;
+
+import ar.edu.itba.ss.models.PackedGrid;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.PrimitiveGrid;
+import ar.edu.itba.ss.models.TraversalOffset;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import ar.edu.itba.ss.models.methods.PrimitiveCellIndexMethod;
+import ar.edu.itba.ss.models.methods.SearchCounters;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PCIM over the double grid, in input and in Z-order, against the packed float grid. Traversal runs
+ * over a grid built once per trial and counts the pairs, so it measures the memory traffic of the
+ * search. The bytes per particle of every grid are printed when the trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackedGridBenchmark {
+
+    private static final long SEED = 20240603L;
+    private static final double DENSITY = 5.0;
+    private static final double RC = 1.0;
+    private static final double R = 0.25;
+
+    @Param({"100000", "1000000"})
+    public int n;
+
+    @Param({"DOUBLE", "MORTON", "PACKED"})
+    public String grid;
+
+    private List<SurfaceEntity<Particle>> particles;
+    private PrimitiveGrid primitiveGrid;
+    private PackedGrid packedGrid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        int l = (int) Math.ceil(Math.sqrt(n / DENSITY));
+        int m = (int) Math.floor(l / (RC + 2 * R));
+        particles = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(R), random.nextDouble() * l, random.nextDouble() * l));
+        }
+
+        long bytes;
+        if (grid.equals("PACKED")) {
+            packedGrid = PrimitiveCellIndexMethod.toPackedGrid(l, m, particles);
+            bytes = packedGrid.getBytes();
+        } else {
+            primitiveGrid = PrimitiveCellIndexMethod.toGrid(l, m, particles, grid.equals("MORTON"));
+            bytes = primitiveGrid.getBytes();
+        }
+        System.out.printf("%n%s grid: %d bytes, %.1f bytes per particle%n", grid, bytes, (double) bytes / n);
+    }
+
+    @Benchmark
+    public long traversal() {
+        SearchCounters counters = new SearchCounters();
+        if (packedGrid != null) {
+            PrimitiveCellIndexMethod.cellIndexMethod(packedGrid, RC, (current, neighbour, distance) -> { }, counters);
+        } else {
+            PrimitiveCellIndexMethod.cellIndexMethod(primitiveGrid, RC, TraversalOffset.L_NEIGHBOURS, (current, neighbour, distance) -> { }, counters);
+        }
+        return counters.getAcceptedPairs();
+    }
+}
@@ -1,5 +1,6 @@
 package ar.edu.itba.ss;
 
+import ar.edu.itba.ss.input.WorkloadGenerator;
 import ar.edu.itba.ss.models.Particle;
 import ar.edu.itba.ss.models.entity.SurfaceEntity;
 import ar.edu.itba.ss.models.methods.BruteForce;
@@ -8,9 +9,7 @@ import ar.edu.itba.ss.models.methods.CellIndexMethod;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 public class AnalyticsCIM {
 
@@ -23,6 +22,17 @@ public class AnalyticsCIM {
 
     private static final int STEP = 10;
 
+    private static final int SPEED_UP_N = 20000;
+
+    private static final int SPEED_UP_REPETITIONS = 5;
+
+    private static final long SEED = 20240603L;
+
+    private static List<SurfaceEntity<Particle>> uniform(int n, long seed) {
+        WorkloadGenerator generator = new WorkloadGenerator(seed, Runtime.getRuntime().availableProcessors());
+        return generator.generate(WorkloadGenerator.Distribution.UNIFORM, L, RC, generator.radii(n, R, R)).toEntities();
+    }
+
     private static void bestM(){
         int m = (int)Math.floor(L/((RC)+2*R));
         System.out.println(m);
@@ -32,20 +42,7 @@ public class AnalyticsCIM {
         builder.append("N,M\n");
 
         while(n <= MAX_N){
-            List<Particle> particles = new ArrayList<>();
-            for (int i = 0; i < n; i++) {
-                particles.add(new Particle(R));
-            }
-            List<SurfaceEntity<Particle>> entities = new ArrayList<>();
-            Random random = new Random();
-
-            for (int i = 0; i < n; i++) {
-                Particle particle = particles.get(i);
-
-                double x = random.nextDouble()*L;
-                double y = random.nextDouble()*L;
-                entities.add(new SurfaceEntity<>(particle,x,y));
-            }
+            List<SurfaceEntity<Particle>> entities = uniform(n, SEED + n);
 
             long minDuration = Long.MAX_VALUE;
 
@@ -87,20 +84,7 @@ public class AnalyticsCIM {
         builder.append("N,TIME\n");
 
         while(n <= MAX_N){
-            List<Particle> particles = new ArrayList<>();
-            for (int i = 0; i < n; i++) {
-                particles.add(new Particle(R));
-            }
-            List<SurfaceEntity<Particle>> entities = new ArrayList<>();
-            Random random = new Random();
-
-            for (int i = 0; i < n; i++) {
-                Particle particle = particles.get(i);
-
-                double x = random.nextDouble()*L;
-                double y = random.nextDouble()*L;
-                entities.add(new SurfaceEntity<>(particle,x,y));
-            }
+            List<SurfaceEntity<Particle>> entities = uniform(n, SEED + n);
 
             long minDuration = Long.MAX_VALUE;
 
@@ -142,6 +126,40 @@ public class AnalyticsCIM {
         }
     }
 
+    private static void speedUp(){
+        int m = (int)Math.floor(L/((RC)+2*R));
+        List<SurfaceEntity<Particle>> entities = uniform(SPEED_UP_N, SEED);
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("THREADS,TIME,SPEED_UP\n");
+
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        double sequentialDuration = 0;
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long minDuration = Long.MAX_VALUE;
+
+            for (int i = 0; i < SPEED_UP_REPETITIONS; i++) {
+                long start = System.nanoTime();
+                CellIndexMethod.calculate(L,m,RC,entities,threads);
+                long end = System.nanoTime();
+                minDuration = Math.min(minDuration, end-start);
+            }
+
+            if (threads == 1) {
+                sequentialDuration = minDuration;
+            }
+            builder.append(String.format("%d,%.4f,%.4f\n",threads,minDuration/1000000.0,sequentialDuration/minDuration));
+        }
+
+        String outputPath = "output/analytics_speed_up.csv";
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath))) {
+            writer.write(builder.toString());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static void main(String[] args) {
         String run = "";
         if(args.length > 0){
@@ -149,6 +167,8 @@ public class AnalyticsCIM {
         }
         if(run.equals("BEST_M")){
             bestM();
+        } else if(run.equals("SPEED_UP")){
+            speedUp();
         } else {
             algorithmsComparison("BF");
             algorithmsComparison("CIM");
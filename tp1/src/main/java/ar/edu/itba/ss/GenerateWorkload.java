@@ -0,0 +1,46 @@
+package ar.edu.itba.ss;
+
+import ar.edu.itba.ss.input.Workload;
+import ar.edu.itba.ss.input.WorkloadGenerator;
+import ar.edu.itba.ss.output.WorkloadWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Writes a static and a dynamic file to input/ for Main:
+ * distribution N L rc minR maxR [seed] [threads]
+ */
+public class GenerateWorkload {
+
+    private static final long DEFAULT_SEED = 1;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 6) {
+            throw new RuntimeException("Uso: UNIFORM|POISSON_DISK|CLUSTERS|LATTICE N L rc minR maxR [seed] [threads]");
+        }
+        WorkloadGenerator.Distribution distribution = WorkloadGenerator.Distribution.valueOf(args[0]);
+        int n = Integer.parseInt(args[1]);
+        int l = Integer.parseInt(args[2]);
+        double rc = Double.parseDouble(args[3]);
+        double minR = Double.parseDouble(args[4]);
+        double maxR = Double.parseDouble(args[5]);
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : DEFAULT_SEED;
+        int threads = args.length > 7 ? Integer.parseInt(args[7]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        WorkloadGenerator generator = new WorkloadGenerator(seed, threads);
+        Workload workload = generator.generate(distribution, l, rc, generator.radii(n, minR, maxR));
+        System.out.printf("Generated %d particles (%s, seed %d) in %.2f ms%n", n, distribution, seed, (System.nanoTime() - start) / 1000000.0);
+
+        String name = distribution.name().toLowerCase() + "_" + n;
+        Path folder = Paths.get("input");
+        Files.createDirectories(folder);
+        WorkloadWriter writer = new WorkloadWriter(workload);
+        writer.writeStatic(folder.resolve("static_" + name + ".txt"));
+        writer.writeDynamic(folder.resolve("dynamic_" + name + ".txt"));
+        System.out.printf("Use -S static_%s.txt -D dynamic_%s.txt%n", name, name);
+    }
+}
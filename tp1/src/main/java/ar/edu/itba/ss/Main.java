@@ -1,21 +1,34 @@
 package ar.edu.itba.ss;
 
-import ar.edu.itba.ss.data.ParticleDataframe;
+import ar.edu.itba.ss.data.NeighbourList;
 import ar.edu.itba.ss.input.ArgumentHandler;
 import ar.edu.itba.ss.config.CIMConfig;
 import ar.edu.itba.ss.input.DynamicFile;
+import ar.edu.itba.ss.input.DynamicFileStream;
+import ar.edu.itba.ss.input.ParticleFileSource;
 import ar.edu.itba.ss.input.StaticFile;
+import ar.edu.itba.ss.input.WorkloadGenerator;
 import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.SpatialIndex;
 import ar.edu.itba.ss.models.SquareGrid;
 import ar.edu.itba.ss.models.entity.SurfaceEntity;
 import ar.edu.itba.ss.models.exceptions.ParticleOutOfBoundsException;
 import ar.edu.itba.ss.models.geometry.Point;
 import ar.edu.itba.ss.models.methods.BruteForce;
 import ar.edu.itba.ss.models.methods.CellIndexMethod;
-import ar.edu.itba.ss.output.ovito.OvitoDataFrame;
-import ar.edu.itba.ss.output.ovito.Scene;
+import ar.edu.itba.ss.models.methods.HierarchicalCellIndexMethod;
+import ar.edu.itba.ss.models.methods.KdTreeMethod;
+import ar.edu.itba.ss.models.methods.NeighbourStatistics;
+import ar.edu.itba.ss.models.methods.OutOfCoreCellIndexMethod;
+import ar.edu.itba.ss.models.methods.PrimitiveCellIndexMethod;
+import ar.edu.itba.ss.models.methods.SearchCounters;
+import ar.edu.itba.ss.output.NeighbourListWriter;
+import ar.edu.itba.ss.output.NeighbourStatisticsWriter;
+import ar.edu.itba.ss.output.ovito.OvitoDumpWriter;
+import ar.edu.itba.ss.profiling.PipelineProfile;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 
@@ -23,11 +36,12 @@ public class Main {
 
     private static final Integer TIME_STEP = 2000;
 
+    private static final int STATISTICS_BINS = 50;
+
     private static final String CONFIG_FILE = "CIMConfig.json";
     private static final String CONFIG_FILE_ERROR = "The file CIMConfig.json was not found in resources";
-    private static final Comparator<SurfaceEntity<Particle>> orderById = Comparator.comparing(particle -> particle.getEntity().getId());
 
-    private static List<SurfaceEntity<Particle>> getParticlesForSimulation(String inputFile, int n, double l, List<Particle> particles){
+    private static List<SurfaceEntity<Particle>> getParticlesForSimulation(String inputFile, int n, int l, double rc, List<Particle> particles, WorkloadGenerator generator, WorkloadGenerator.Distribution distribution){
 
         List<SurfaceEntity<Particle>> entities = new ArrayList<>();
 
@@ -45,16 +59,12 @@ public class Main {
             }
         } catch (FileNotFoundException e){
 
-            System.out.println("Using random generated particles");
-            Random random = new Random();
-
+            System.out.printf("Using generated particles (%s, seed = %d)%n", distribution, generator.getSeed());
+            double[] radii = new double[n];
             for (int i = 0; i < n; i++) {
-                Particle particle = particles.get(i);
-
-                double x = random.nextDouble()*l;
-                double y = random.nextDouble()*l;
-                entities.add(new SurfaceEntity<>(particle,x,y));
+                radii[i] = particles.get(i).getRadius();
             }
+            entities = generator.generate(distribution, l, rc, radii).toEntities(particles.subList(0, n));
         }
 
         return entities;
@@ -66,8 +76,11 @@ public class Main {
         String staticFileArg = handler.getStaticFileName();
         String dynamicFileArg = handler.getDynamicFileName();
 
-        int n, l;
+        int n, l, threads, subcells;
+        boolean morton, periodic, packed;
         double rc, maxR;
+        long seed;
+        String distributionName;
         CIMConfig config;
 
         try {
@@ -76,10 +89,36 @@ public class Main {
             l = config.getParameters().getL();
             rc = config.getParameters().getRc();
             maxR = config.getParameters().getR();
+            threads = config.getParameters().getThreads();
+            subcells = config.getParameters().getSubcells();
+            morton = config.getParameters().isMorton();
+            periodic = config.getParameters().isPeriodic();
+            packed = config.getParameters().isPacked();
+            seed = config.getParameters().getSeed() != null ? config.getParameters().getSeed() : new Random().nextLong();
+            distributionName = config.getParameters().getDistribution();
         } catch (Exception e) {
             throw new RuntimeException(CONFIG_FILE_ERROR);
         }
 
+        WorkloadGenerator.Distribution distribution = WorkloadGenerator.Distribution.UNIFORM;
+        if (distributionName != null) {
+            try {
+                distribution = WorkloadGenerator.Distribution.valueOf(distributionName);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Distribución desconocida: " + distributionName + ", se esperaba una de " + Arrays.toString(WorkloadGenerator.Distribution.values()));
+            }
+        }
+
+        // Runs before anything is loaded, so it works for inputs that do not fit in memory
+        if(config.getResults().getAlgorithms().contains("OOCIM")){
+            outOfCore(Paths.get("input"), staticFileArg, dynamicFileArg, handler.getM(), "output/" + config.getResults().getOutput_folder(), config.getResults().isTime());
+            if(config.getResults().getAlgorithms().size() == 1){
+                return;
+            }
+        }
+
+        PipelineProfile profile = new PipelineProfile();
+        PipelineProfile.Phase parsePhase = profile.start("parse");
         List<Particle> particles = new ArrayList<>();
 
         try {
@@ -98,14 +137,18 @@ public class Main {
             }
         }
 
-        List<SurfaceEntity<Particle>> entityParticles = getParticlesForSimulation(dynamicFileArg,n,l,particles);
+        List<SurfaceEntity<Particle>> entityParticles = getParticlesForSimulation(dynamicFileArg,n,l,rc,particles,new WorkloadGenerator(seed, threads),distribution);
+        parsePhase.particles(entityParticles.size()).close();
 
         int m = handler.getM();
         if(m == 0 || (double)l/m < (rc+2*maxR)){
             if(m != 0){
                 System.out.printf("M cannot be: %d%n", m);
             }
-            m = (int)Math.floor(l/((rc)+2*maxR));
+            try (PipelineProfile.Phase phase = profile.start("chooseM")) {
+                m = CellIndexMethod.chooseM(l, rc, maxR, entityParticles);
+                phase.particles(entityParticles.size());
+            }
         }
         System.out.printf("Using M = %d%n",m);
 
@@ -116,6 +159,7 @@ public class Main {
         directory.mkdirs();
 
         String parametersString = String.format("L = %d ; N = %d ; M = %d; Rc = %.4f ; R (max) = %.4f\n", l, n, m, rc, maxR);
+        NeighbourList firstFrame = null;
 
         if(algorithms.contains("CIM")){
             String filePath = folderPath + "/results_cim.txt";
@@ -125,36 +169,28 @@ public class Main {
             }
 
             long startTime = System.nanoTime();
-            Map<SurfaceEntity<Particle>, ParticleDataframe> df = CellIndexMethod.calculate(l, m, rc,entityParticles);
+            SquareGrid<Particle> grid;
+            try (PipelineProfile.Phase phase = profile.start("grid")) {
+                grid = CellIndexMethod.toGrid(l, m, entityParticles);
+                phase.particles(entityParticles.size());
+            }
+            NeighbourList neighbourList = CellIndexMethod.calculateNeighbourList(grid, rc, entityParticles, threads, profile);
+            firstFrame = neighbourList;
             long endTime = System.nanoTime();
             long duration = endTime - startTime;
 
-            TreeMap<SurfaceEntity<Particle>,ParticleDataframe> orderedDf = new TreeMap<>(orderById);
-            orderedDf.putAll(df);
-
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath,true))) {
-                StringBuilder builder = new StringBuilder();
-                builder.append(parametersString);
-                builder.append(ParticleDataframe.collectionToString(orderedDf.values()));
-                if(config.getResults().isTime()) {
-                    builder.append(String.format("TIEMPO DE EJECUCIÓN CIM: %.2f ms\n",(double)duration/1000000));
-                }
-                writer.append(builder.toString());
-            } catch (IOException e) {
-                System.err.println("Ocurrió un error al escribir los resultados " + e.getMessage());
+            try (PipelineProfile.Phase phase = profile.start("output")) {
+                writeResults(filePath, parametersString, neighbourList, "CIM", duration, config.getResults().isTime());
+                phase.particles(entityParticles.size()).bytesWritten(file.length());
             }
+            writeSummary(Paths.get(folderPath, "summary_cim.json"), profile, "CIM", n, l, m, rc, maxR, threads);
 
             if(config.getResults().isOvito_file()){
-                String ovitoPath = folderPath + "/ovito_cim.dump";
-                File ovitoFile = new File(ovitoPath);
-                if (ovitoFile.exists()) {
-                    ovitoFile.delete();
-                }
-                Map<SurfaceEntity<Particle>, OvitoDataFrame> ovitoDf = OvitoDataFrame.toOvitoDataframeMap(df,new SquareGrid<>(l,m));
-                List<Scene> scenes = Scene.getScenesByDataframes(ovitoDf,entityParticles,TIME_STEP,entityParticles.size(),rc);
+                Path ovitoPath = Paths.get(folderPath, "ovito_cim.dump");
+                int[] highlighted = OvitoDumpWriter.select(neighbourList, config.getResults().getOvito_particles());
 
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(ovitoFile))) {
-                    writer.append(Scene.toStringScenes(scenes));
+                try (OvitoDumpWriter writer = new OvitoDumpWriter(ovitoPath, new SquareGrid<>(l, m), rc, TIME_STEP)) {
+                    writer.writeScenes(entityParticles, neighbourList, highlighted);
                 } catch (IOException e) {
                     System.err.println("Ocurrió un error al escribir el archivo de ovito " + e.getMessage());
                 }
@@ -169,21 +205,228 @@ public class Main {
             }
 
             long startTime = System.nanoTime();
-            List<ParticleDataframe> bruteDf = BruteForce.calculate(entityParticles,rc);
+            NeighbourList neighbourList = BruteForce.calculateNeighbourList(entityParticles, rc, threads);
+            long endTime = System.nanoTime();
+            long duration = endTime - startTime;
+
+            writeResults(filePath, parametersString, neighbourList, "BF", duration, config.getResults().isTime());
+        }
+
+        if(algorithms.contains("PCIM")){
+            String filePath = folderPath + "/results_pcim.txt";
+            File file = new File(filePath);
+            if (file.exists()) {
+                file.delete();
+            }
+
+            long startTime = System.nanoTime();
+            SearchCounters counters = new SearchCounters();
+            NeighbourList neighbourList;
+            if (subcells > 1) {
+                neighbourList = PrimitiveCellIndexMethod.calculateNeighbourList(l, rc, subcells, entityParticles, morton, counters);
+            } else if (packed) {
+                neighbourList = PrimitiveCellIndexMethod.calculatePackedNeighbourList(l, m, rc, entityParticles, counters);
+            } else {
+                neighbourList = PrimitiveCellIndexMethod.calculateNeighbourList(l, m, rc, entityParticles, morton);
+            }
+            long endTime = System.nanoTime();
+            long duration = endTime - startTime;
+            if (subcells > 1) {
+                System.out.printf("PCIM with %d sub-cells, M = %d, %s%n", subcells, PrimitiveCellIndexMethod.subCellM(l, rc, maxR, subcells), counters);
+            } else if (packed) {
+                System.out.printf("PCIM with packed floats, %s%n", counters);
+            }
+
+            writeResults(filePath, parametersString, neighbourList, "PCIM", duration, config.getResults().isTime());
+        }
+
+        if(algorithms.contains("HCIM")){
+            String filePath = folderPath + "/results_hcim.txt";
+            File file = new File(filePath);
+            if (file.exists()) {
+                file.delete();
+            }
+
+            long startTime = System.nanoTime();
+            NeighbourList neighbourList = HierarchicalCellIndexMethod.calculateNeighbourList(l, rc, entityParticles);
+            long endTime = System.nanoTime();
+            long duration = endTime - startTime;
+
+            writeResults(filePath, parametersString, neighbourList, "HCIM", duration, config.getResults().isTime());
+        }
+
+        if(algorithms.contains("KDT")){
+            String filePath = folderPath + "/results_kdt.txt";
+            File file = new File(filePath);
+            if (file.exists()) {
+                file.delete();
+            }
+
+            long startTime = System.nanoTime();
+            NeighbourList neighbourList = KdTreeMethod.calculateNeighbourList(l, rc, entityParticles, periodic);
             long endTime = System.nanoTime();
             long duration = endTime - startTime;
 
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath,true))) {
-                StringBuilder builder = new StringBuilder();
-                builder.append(parametersString);
-                builder.append(ParticleDataframe.collectionToString(bruteDf));
+            writeResults(filePath, parametersString, neighbourList, "KDT", duration, config.getResults().isTime());
+        }
+
+        if(config.getResults().isStatistics()){
+            long startTime = System.nanoTime();
+            double[] radii = new double[entityParticles.size()];
+            double minR = Double.POSITIVE_INFINITY;
+            for (int p = 0; p < radii.length; p++) {
+                radii[p] = entityParticles.get(p).getEntity().getRadius();
+                minR = Math.min(minR, radii[p]);
+            }
+            double rMax = rc + 2 * (radii.length == 0 ? 0 : minR);
+            int statisticsL = l;
+            NeighbourStatistics statistics = PrimitiveCellIndexMethod.reduce(PrimitiveCellIndexMethod.toGrid(l, m, entityParticles), rc,
+                    () -> new NeighbourStatistics(radii, statisticsL, rMax, STATISTICS_BINS), threads);
+            long duration = System.nanoTime() - startTime;
+
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(folderPath + "/statistics.txt"))) {
+                writer.append(parametersString);
+                new NeighbourStatisticsWriter(writer).write(statistics);
                 if(config.getResults().isTime()) {
-                    builder.append(String.format("TIEMPO DE EJECUCIÓN BF: %.2f ms\n",(double)duration/1000000));
+                    writer.append(String.format("TIEMPO DE EJECUCIÓN STATISTICS: %.2f ms\n", (double)duration/1000000));
                 }
-                writer.append(builder.toString());
             } catch (IOException e) {
-                System.err.println("Ocurrió un error al escribir los resultados " + e.getMessage());
+                System.err.println("Ocurrió un error al escribir las estadísticas " + e.getMessage());
+            }
+        }
+
+        // Moves the particles through the frames, so it runs after every algorithm used the first one
+        if(algorithms.contains("CIM")){
+            try (DynamicFileStream stream = new DynamicFileStream(dynamicFileArg)) {
+                processFrames(stream, folderPath + "/results_cim_frames.txt", parametersString, l, m, rc, threads, entityParticles, firstFrame, config.getResults().isTime());
+            } catch (FileNotFoundException e) {
+                // Random generated particles, there is a single frame
+            } catch (IOException e) {
+                System.err.println("Ocurrió un error al procesar los frames " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Out of core CIM straight from the files in inputDirectory. Pairs are written as "id neighbour" lines while
+     * they are found, every pair once.
+     */
+    static void outOfCore(Path inputDirectory, String staticFileArg, String dynamicFileArg, int m, String folderPath, boolean time){
+        try {
+            ParticleFileSource source = new ParticleFileSource(inputDirectory, staticFileArg, dynamicFileArg);
+            int l = source.getL();
+            double rc = source.getRc();
+            if(m == 0 || (double)l/m < (rc+2*source.getMaxR())){
+                m = Math.max(1, (int) Math.floor(l / (rc + 2 * source.getMaxR())));
+            }
+            int bandRows = OutOfCoreCellIndexMethod.bandRows(source.getN(), m);
+            System.out.printf("OOCIM with M = %d, %d rows per band%n", m, bandRows);
+
+            new File(folderPath).mkdirs();
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(folderPath + "/results_oocim.txt"), 1 << 16)) {
+                writer.append(String.format("L = %d ; N = %d ; M = %d; Rc = %.4f ; R (max) = %.4f\n", l, source.getN(), m, rc, source.getMaxR()));
+                long startTime = System.nanoTime();
+                OutOfCoreCellIndexMethod.calculate(l, m, rc, source, bandRows, (current, neighbour, distance) -> {
+                    try {
+                        // Ids start at 1 in file order, as the ids of the particles of the static file
+                        writer.append(Integer.toString(current + 1)).append(' ').append(Integer.toString(neighbour + 1)).append('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if(time) {
+                    writer.append(String.format("TIEMPO DE EJECUCIÓN OOCIM: %.2f ms\n", (double)(System.nanoTime() - startTime)/1000000));
+                }
+            }
+        } catch (FileNotFoundException e) {
+            System.err.println("OOCIM necesita los archivos estático y dinámico " + e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Ocurrió un error al escribir los resultados " + e.getMessage());
+        }
+    }
+
+    /**
+     * If the dynamic file has more than one frame, runs CIM on every frame reusing the grid of the previous one:
+     * only the particles that changed cell are re-binned. Results are written frame by frame, the first frame is
+     * the neighbour list already computed for the particles as loaded. Every frame must have one position per
+     * particle.
+     */
+    static void processFrames(DynamicFileStream stream, String filePath, String parametersString, int l, int m, double rc, int threads, List<SurfaceEntity<Particle>> entityParticles, NeighbourList firstFrame, boolean time) throws IOException {
+        if (!stream.nextFrame()) {
+            return;
+        }
+        checkFrame(stream, entityParticles.size());
+        double firstTime = stream.getTime();
+        if (!stream.nextFrame()) {
+            return;
+        }
+
+        SpatialIndex index = new SpatialIndex(l, m, entityParticles);
+        int frames = 1;
+        long rebinned = 0;
+        long startTime = System.nanoTime();
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+            NeighbourListWriter neighbourListWriter = new NeighbourListWriter(writer);
+            writer.append(parametersString);
+            writer.append(String.format("t = %s\n", firstTime));
+            neighbourListWriter.write(firstFrame);
+
+            do {
+                checkFrame(stream, entityParticles.size());
+                for (int i = 0; i < entityParticles.size(); i++) {
+                    double x = stream.getX(i);
+                    double y = stream.getY(i);
+                    if(x < 0 || x > l || y < 0 || y > l){
+                        throw new ParticleOutOfBoundsException();
+                    }
+                    if (index.move(entityParticles.get(i), x, y)) {
+                        rebinned++;
+                    }
+                }
+
+                writer.append(String.format("t = %s\n", stream.getTime()));
+                neighbourListWriter.write(CellIndexMethod.calculateNeighbourList(index.getGrid(), rc, entityParticles, threads));
+                frames++;
+            } while (stream.nextFrame());
+
+            if(time) {
+                writer.append(String.format("TIEMPO DE EJECUCIÓN CIM (%d frames): %.2f ms\n", frames, (double)(System.nanoTime() - startTime)/1000000));
+            }
+        }
+        System.out.printf("Processed %d frames, %d particles re-binned%n", frames, rebinned);
+    }
+
+    private static void checkFrame(DynamicFileStream stream, int particles) {
+        if (stream.getCount() != particles) {
+            throw new IllegalStateException(String.format("The frame at t = %s has %d positions, expected %d", stream.getTime(), stream.getCount(), particles));
+        }
+    }
+
+    private static void writeSummary(Path path, PipelineProfile profile, String algorithm, int n, int l, int m, double rc, double maxR, int threads){
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("n", n);
+        parameters.put("l", l);
+        parameters.put("m", m);
+        parameters.put("rc", rc);
+        parameters.put("maxR", maxR);
+        parameters.put("threads", threads);
+        try {
+            profile.writeSummary(path, algorithm, parameters);
+        } catch (IOException e) {
+            System.err.println("Ocurrió un error al escribir el resumen " + e.getMessage());
+        }
+    }
+
+    private static void writeResults(String filePath, String parametersString, NeighbourList neighbourList, String algorithm, long duration, boolean time){
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath,true))) {
+            writer.append(parametersString);
+            new NeighbourListWriter(writer).write(neighbourList);
+            if(time) {
+                writer.append(String.format("TIEMPO DE EJECUCIÓN %s: %.2f ms\n", algorithm, (double)duration/1000000));
             }
+        } catch (IOException e) {
+            System.err.println("Ocurrió un error al escribir los resultados " + e.getMessage());
         }
     }
 }
\ No newline at end of file
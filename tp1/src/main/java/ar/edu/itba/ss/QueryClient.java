@@ -0,0 +1,52 @@
+package ar.edu.itba.ss;
+
+import ar.edu.itba.ss.service.NeighbourQueryClient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends the queries read from stdin to a {@link QueryServer} on a local port, in batches:
+ * port [batch size]
+ */
+public class QueryClient {
+
+    private static final int DEFAULT_BATCH = 256;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            throw new RuntimeException("Uso: port [batch size]");
+        }
+        int port = Integer.parseInt(args[0]);
+        int batch = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BATCH;
+
+        try (NeighbourQueryClient client = new NeighbourQueryClient(port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            List<String> queries = new ArrayList<>(batch);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    queries.add(line);
+                }
+                if (queries.size() == batch) {
+                    send(client, queries);
+                }
+            }
+            if (!queries.isEmpty()) {
+                send(client, queries);
+            }
+            System.err.println(client.stats());
+        }
+    }
+
+    private static void send(NeighbourQueryClient client, List<String> queries) throws IOException {
+        for (String result : client.batch(queries)) {
+            System.out.println(result);
+        }
+        queries.clear();
+    }
+}
@@ -0,0 +1,64 @@
+package ar.edu.itba.ss;
+
+import ar.edu.itba.ss.input.ArgumentHandler;
+import ar.edu.itba.ss.input.DynamicFile;
+import ar.edu.itba.ss.input.StaticFile;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import ar.edu.itba.ss.models.exceptions.ParticleOutOfBoundsException;
+import ar.edu.itba.ss.models.geometry.Point;
+import ar.edu.itba.ss.models.methods.CellIndexMethod;
+import ar.edu.itba.ss.service.NeighbourQueryService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the particles of -S and -D once and answers {@link NeighbourQueryService} requests until it is
+ * stopped: on stdin/stdout, or on the local port -P. Logs go to stderr.
+ */
+public class QueryServer {
+
+    public static void main(String[] args) throws IOException {
+        ArgumentHandler handler = new ArgumentHandler(args);
+
+        long start = System.nanoTime();
+        StaticFile staticFile = new StaticFile(handler.getStaticFileName());
+        List<Particle> particles = staticFile.getParticles();
+        List<Point> positions = new DynamicFile(handler.getDynamicFileName()).getPositions();
+        int l = staticFile.getL();
+
+        List<SurfaceEntity<Particle>> entities = new ArrayList<>(particles.size());
+        for (int i = 0; i < particles.size(); i++) {
+            Point position = positions.get(i);
+            if (position.getX() < 0 || position.getX() > l || position.getY() < 0 || position.getY() > l) {
+                throw new ParticleOutOfBoundsException();
+            }
+            entities.add(new SurfaceEntity<>(particles.get(i), position.getX(), position.getY()));
+        }
+
+        int m = handler.getM() != 0 ? handler.getM() : CellIndexMethod.chooseM(l, staticFile.getRc(), staticFile.getMaxR(), entities);
+        NeighbourQueryService service = new NeighbourQueryService(l, m, entities);
+        System.err.printf("Loaded %d particles with M = %d in %.2f ms%n", service.size(), m, (System.nanoTime() - start) / 1000000.0);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.println("Latencies (us): " + service.getLatencies().summary())));
+
+        if (handler.getPort() == 0) {
+            service.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            return;
+        }
+
+        try (ServerSocket server = new ServerSocket(handler.getPort(), 0, InetAddress.getLoopbackAddress())) {
+            System.err.printf("Listening on %s%n", server.getLocalSocketAddress());
+            service.serve(server);
+        }
+    }
+}
@@ -28,7 +28,9 @@ public class CIMConfig {
     public static class ResultsConfig{
         private boolean time;
         private boolean ovito_file;
+        private boolean statistics;
         private List<String> algorithms;
+        private List<Integer> ovito_particles;
         private String output_folder;
 
         public boolean isTime() {
@@ -39,6 +41,14 @@ public class CIMConfig {
             return ovito_file;
         }
 
+        public boolean isStatistics() {
+            return statistics;
+        }
+
+        public List<Integer> getOvito_particles() {
+            return ovito_particles;
+        }
+
         public String getOutput_folder() {
             return output_folder;
         }
@@ -48,10 +58,16 @@ public class CIMConfig {
         }
     }
     public static class ParametersConfig{
-        private int l, n, m;
+        private int l, n, m, threads, subcells;
 
         private double rc,r;
 
+        private boolean morton, periodic, packed;
+
+        private Long seed;
+
+        private String distribution;
+
         public int getL() {
             return l;
         }
@@ -64,10 +80,38 @@ public class CIMConfig {
             return m;
         }
 
+        public int getThreads() {
+            return threads;
+        }
+
+        public int getSubcells() {
+            return subcells;
+        }
+
+        public boolean isMorton() {
+            return morton;
+        }
+
+        public boolean isPeriodic() {
+            return periodic;
+        }
+
+        public boolean isPacked() {
+            return packed;
+        }
+
         public double getRc() {
             return rc;
         }
 
+        public Long getSeed() {
+            return seed;
+        }
+
+        public String getDistribution() {
+            return distribution;
+        }
+
         public double getR() {
             return r;
         }
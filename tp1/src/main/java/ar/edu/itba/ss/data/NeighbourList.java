@@ -0,0 +1,172 @@
+package ar.edu.itba.ss.data;
+
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+
+import java.util.*;
+
+/**
+ * Neighbours of every particle in compressed sparse row form: the neighbours of particle p are
+ * neighbours[offsets[p]] .. neighbours[offsets[p+1]-1], sorted and without repetitions.
+ * Particles are referred to by their index in the simulation list, ids[p] holds the id of particle p.
+ */
+public class NeighbourList {
+
+    private final int[] ids;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final float[] distances;
+
+    private NeighbourList(int[] ids, int[] offsets, int[] neighbours, float[] distances) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.distances = distances;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int getId(int particle) {
+        return ids[particle];
+    }
+
+    public int getNeighbourCount(int particle) {
+        return offsets[particle + 1] - offsets[particle];
+    }
+
+    public int getNeighbour(int particle, int k) {
+        return neighbours[offsets[particle] + k];
+    }
+
+    public boolean hasDistances() {
+        return distances != null;
+    }
+
+    public float getDistance(int particle, int k) {
+        if (distances == null) {
+            throw new IllegalStateException("The neighbour list was built without distances");
+        }
+        return distances[offsets[particle] + k];
+    }
+
+    public int getPairCount() {
+        return neighbours.length / 2;
+    }
+
+    public PrimitiveIterator.OfInt neighbourIterator(int particle) {
+        return Arrays.stream(neighbours, offsets[particle], offsets[particle + 1]).iterator();
+    }
+
+    /**
+     * Particle indexes sorted by id, the order in which the results are written.
+     */
+    public PrimitiveIterator.OfInt idOrderIterator() {
+        long[] keys = new long[ids.length];
+        for (int p = 0; p < ids.length; p++) {
+            keys[p] = ((long) ids[p] << 32) | p;
+        }
+        Arrays.sort(keys);
+        return Arrays.stream(keys).mapToInt(key -> (int) key).iterator();
+    }
+
+    public Map<SurfaceEntity<Particle>, ParticleDataframe> toDataframes(List<SurfaceEntity<Particle>> particles) {
+        Map<SurfaceEntity<Particle>, ParticleDataframe> dataframes = new LinkedHashMap<>();
+        for (int p = 0; p < size(); p++) {
+            ParticleDataframe df = new ParticleDataframe(particles.get(p));
+            for (int k = 0; k < getNeighbourCount(p); k++) {
+                df.addNeighbour(particles.get(getNeighbour(p, k)), hasDistances() ? getDistance(p, k) : Double.NaN);
+            }
+            dataframes.put(particles.get(p), df);
+        }
+        return dataframes;
+    }
+
+    public static int[] ids(List<SurfaceEntity<Particle>> particles) {
+        int[] ids = new int[particles.size()];
+        for (int p = 0; p < ids.length; p++) {
+            ids[p] = particles.get(p).getEntity().getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Collects unordered pairs and packs them into a {@link NeighbourList}. A pair may be added more than once.
+     */
+    public static class Builder {
+        private final int[] ids;
+        private final boolean withDistances;
+        private int[] firsts = new int[1024];
+        private int[] seconds = new int[1024];
+        private float[] pairDistances;
+        private int pairs = 0;
+
+        public Builder(int[] ids, boolean withDistances) {
+            this.ids = ids;
+            this.withDistances = withDistances;
+            this.pairDistances = withDistances ? new float[1024] : null;
+        }
+
+        public void addPair(int first, int second, double distance) {
+            if (pairs == firsts.length) {
+                firsts = Arrays.copyOf(firsts, pairs * 2);
+                seconds = Arrays.copyOf(seconds, pairs * 2);
+                if (withDistances) {
+                    pairDistances = Arrays.copyOf(pairDistances, pairs * 2);
+                }
+            }
+            firsts[pairs] = first;
+            seconds[pairs] = second;
+            if (withDistances) {
+                pairDistances[pairs] = (float) distance;
+            }
+            pairs++;
+        }
+
+        public NeighbourList build() {
+            int n = ids.length;
+            int[] offsets = new int[n + 1];
+            for (int k = 0; k < pairs; k++) {
+                offsets[firsts[k] + 1]++;
+                offsets[seconds[k] + 1]++;
+            }
+            for (int p = 0; p < n; p++) {
+                offsets[p + 1] += offsets[p];
+            }
+
+            int[] next = Arrays.copyOf(offsets, n);
+            long[] entries = new long[2 * pairs];
+            for (int k = 0; k < pairs; k++) {
+                long distanceBits = withDistances ? Float.floatToRawIntBits(pairDistances[k]) & 0xFFFFFFFFL : 0;
+                entries[next[firsts[k]]++] = ((long) seconds[k] << 32) | distanceBits;
+                entries[next[seconds[k]]++] = ((long) firsts[k] << 32) | distanceBits;
+            }
+            firsts = seconds = null;
+            pairDistances = null;
+
+            int[] compactOffsets = new int[n + 1];
+            int size = 0;
+            for (int p = 0; p < n; p++) {
+                Arrays.sort(entries, offsets[p], offsets[p + 1]);
+                for (int k = offsets[p]; k < offsets[p + 1]; k++) {
+                    if (k == offsets[p] || (entries[k] >>> 32) != (entries[k - 1] >>> 32)) {
+                        entries[size++] = entries[k];
+                    }
+                }
+                compactOffsets[p + 1] = size;
+            }
+
+            int[] neighbours = new int[size];
+            float[] distances = withDistances ? new float[size] : null;
+            for (int k = 0; k < size; k++) {
+                neighbours[k] = (int) (entries[k] >>> 32);
+                if (withDistances) {
+                    distances[k] = Float.intBitsToFloat((int) entries[k]);
+                }
+            }
+
+            return new NeighbourList(ids, compactOffsets, neighbours, distances);
+        }
+    }
+}
@@ -29,15 +29,6 @@ public class ParticleDataframe {
         neighbours.put(neighbour,distance);
     }
 
-    public static String collectionToString(Collection<ParticleDataframe> collection){
-        StringBuilder builder = new StringBuilder();
-        for (ParticleDataframe df:collection) {
-            builder.append(df.toString());
-            builder.append('\n');
-        }
-        return builder.toString();
-    }
-
     @Override
     public String toString(){
         String neighboursStr = neighbours.keySet().stream().map(p->p.getEntity().getId().toString())
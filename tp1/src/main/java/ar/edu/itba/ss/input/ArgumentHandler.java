@@ -5,6 +5,7 @@ public class ArgumentHandler {
     private int m = 0;
     private String dynamicFileName = "";
     private String staticFileName = "";
+    private int port = 0;
 
     public ArgumentHandler(String[] args) {
         for (int i = 0; i < args.length; i++) {
@@ -33,6 +34,14 @@ public class ArgumentHandler {
                         throw new RuntimeException("Se esperaba un valor después de -S");
                     }
                     break;
+                case "-P":
+                    if (i + 1 < args.length) {
+                        this.port = Integer.parseInt(args[i + 1]);
+                        i++;
+                    } else {
+                        throw new RuntimeException("Se esperaba un valor después de -P");
+                    }
+                    break;
                 default:
                     throw new RuntimeException("Opción no reconocida: " + args[i]);
             }
@@ -50,4 +59,8 @@ public class ArgumentHandler {
     public String getStaticFileName() {
         return staticFileName;
     }
+
+    public int getPort() {
+        return port;
+    }
 }
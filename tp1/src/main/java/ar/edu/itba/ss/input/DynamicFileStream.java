@@ -0,0 +1,115 @@
+package ar.edu.itba.ss.input;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Reads a dynamic file one frame at a time. Every frame is a line with its time followed by
+ * one "x y" line per particle, the next time line starts the next frame. The position buffers
+ * are reused between frames, so files of any length can be processed.
+ */
+public class DynamicFileStream implements Closeable {
+
+    private final MappedFileReader reader;
+    private double time = 0;
+    private double nextTime = Double.NaN;
+    private boolean finished = false;
+    private boolean started = false;
+    private int count = 0;
+    private double[] x = new double[1024];
+    private double[] y = new double[1024];
+
+    public DynamicFileStream(String filename) throws FileNotFoundException {
+        this(resolve(filename));
+    }
+
+    public DynamicFileStream(Path path) throws FileNotFoundException {
+        if (!Files.isRegularFile(path))
+            throw new FileNotFoundException(path.toString());
+
+        try {
+            this.reader = new MappedFileReader(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path resolve(String filename) throws FileNotFoundException {
+        if(filename == null)
+            throw  new FileNotFoundException();
+
+        return Paths.get("input/" +filename).toAbsolutePath();
+    }
+
+    public boolean nextFrame() throws IOException {
+        if (finished) {
+            return false;
+        }
+
+        count = 0;
+        if (!started) {
+            started = true;
+            if (!reader.hasNextLine()) {
+                finished = true;
+                return false;
+            }
+            if (reader.nextLine() != 1) {
+                throw new NumberFormatException("Se esperaba el tiempo en la primera línea");
+            }
+            time = reader.getToken(0);
+        } else {
+            time = nextTime;
+        }
+
+        while (reader.hasNextLine()) {
+            int tokens = reader.nextLine();
+            if (tokens == 1) {
+                nextTime = reader.getToken(0);
+                return true;
+            }
+            if (tokens == 2) {
+                addPosition(reader.getToken(0), reader.getToken(1));
+            }
+        }
+
+        finished = true;
+        return true;
+    }
+
+    private void addPosition(double px, double py) {
+        if (count == x.length) {
+            x = Arrays.copyOf(x, count * 2);
+            y = Arrays.copyOf(y, count * 2);
+        }
+        x[count] = px;
+        y[count] = py;
+        count++;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getX(int particle) {
+        return x[particle];
+    }
+
+    public double getY(int particle) {
+        return y[particle];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
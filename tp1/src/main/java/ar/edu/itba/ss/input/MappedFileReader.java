@@ -0,0 +1,278 @@
+package ar.edu.itba.ss.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Line reader over a memory mapped file. Every call to {@link #nextLine()} splits one line in
+ * whitespace separated numbers and parses them straight from the bytes, so no String is created
+ * per line. Files larger than a single mapping are read through a sliding window.
+ */
+class MappedFileReader implements Closeable {
+
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int MAX_LINE = 1 << 16;
+    private static final int MAX_TOKENS = 8;
+    private static final int MAX_DIGITS = 19;
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // 128 bit truncated mantissas of 10^q for q in [MIN_POWER, MAX_POWER], high word first
+    private static final int MIN_POWER = -342;
+    private static final int MAX_POWER = 308;
+    private static final long[] POW10_HIGH = new long[MAX_POWER - MIN_POWER + 1];
+    private static final long[] POW10_LOW = new long[MAX_POWER - MIN_POWER + 1];
+
+    static {
+        BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int q = MIN_POWER; q <= MAX_POWER; q++) {
+            BigInteger power = BigInteger.TEN.pow(Math.abs(q));
+            BigInteger mantissa;
+            if (q >= 0) {
+                int shift = power.bitLength() - 128;
+                mantissa = shift > 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+            } else {
+                mantissa = BigInteger.ONE.shiftLeft(power.bitLength() + 127).divide(power);
+            }
+            POW10_HIGH[q - MIN_POWER] = mantissa.shiftRight(64).longValue();
+            POW10_LOW[q - MIN_POWER] = mantissa.and(mask).longValue();
+        }
+    }
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private int position = 0;
+
+    private final double[] tokens = new double[MAX_TOKENS];
+    private int tokenCount = 0;
+
+    MappedFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        map(0);
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        position = 0;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, fileSize - start));
+    }
+
+    public boolean hasNextLine() {
+        return windowStart + position < fileSize;
+    }
+
+    /**
+     * Parses the next line and returns how many tokens it has. Only the first tokens are kept,
+     * see {@link #getToken(int)}, a line without tokens returns 0.
+     */
+    public int nextLine() throws IOException {
+        int limit = window.limit();
+        if (limit - position < MAX_LINE && windowStart + limit < fileSize) {
+            map(windowStart + position);
+            limit = window.limit();
+        }
+
+        tokenCount = 0;
+        while (position < limit) {
+            byte b = window.get(position);
+            if (b == '\n') {
+                position++;
+                return tokenCount;
+            }
+            if (b <= ' ') {
+                position++;
+                continue;
+            }
+            double value = parseToken(limit);
+            if (tokenCount < MAX_TOKENS) {
+                tokens[tokenCount] = value;
+            }
+            tokenCount++;
+        }
+        return tokenCount;
+    }
+
+    public double getToken(int index) {
+        if (index >= Math.min(tokenCount, MAX_TOKENS)) {
+            throw new IndexOutOfBoundsException("Token inexistente: " + index);
+        }
+        return tokens[index];
+    }
+
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Reads a line holding a single integer value.
+     */
+    public int nextInt() throws IOException {
+        if (nextLine() != 1) {
+            throw new NumberFormatException("Se esperaba un único entero en la línea");
+        }
+        double value = tokens[0];
+        if (value != Math.rint(value) || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Se esperaba un entero: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses decimal numbers with up to 19 significant digits from the bytes: exactly with a
+     * double operation when the mantissa and power of ten are exact doubles, otherwise with the
+     * Eisel-Lemire algorithm. Anything it can not round correctly is handed to
+     * {@link Double#parseDouble(String)}.
+     */
+    private double parseToken(int limit) {
+        int start = position;
+        int i = position;
+        boolean negative = false;
+        byte b = window.get(i);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+
+        while (i < limit && (b = window.get(i)) >= '0' && b <= '9') {
+            seenDigit = true;
+            if (mantissa != 0 || b != '0') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+            }
+            i++;
+        }
+        if (i < limit && window.get(i) == '.') {
+            i++;
+            while (i < limit && (b = window.get(i)) >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa != 0 || b != '0') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                }
+                exponent--;
+                i++;
+            }
+        }
+        boolean valid = seenDigit && digits <= MAX_DIGITS;
+        if (seenDigit && i < limit && ((b = window.get(i)) == 'e' || b == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < limit && ((b = window.get(i)) == '-' || b == '+')) {
+                negativeExponent = b == '-';
+                i++;
+            }
+            int value = 0;
+            boolean seenExponentDigit = false;
+            while (i < limit && (b = window.get(i)) >= '0' && b <= '9') {
+                seenExponentDigit = true;
+                value = Math.min(value * 10 + (b - '0'), 100000);
+                i++;
+            }
+            valid &= seenExponentDigit;
+            exponent += negativeExponent ? -value : value;
+        }
+
+        int end = i;
+        while (end < limit && window.get(end) > ' ') {
+            end++;
+        }
+        position = end;
+
+        if (valid && end == i) {
+            if (digits <= MAX_EXACT_DIGITS && exponent >= -22 && exponent <= 22) {
+                double value = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+                return negative ? -value : value;
+            }
+            double value = eiselLemire(mantissa, exponent);
+            if (!Double.isNaN(value)) {
+                return negative ? -value : value;
+            }
+        }
+        return Double.parseDouble(text(start, end));
+    }
+
+    /**
+     * Correctly rounded mantissa * 10^exponent, or NaN when the 128 bit product is not enough
+     * to decide the rounding or the result is subnormal or infinite.
+     */
+    private static double eiselLemire(long mantissa, int exponent) {
+        if (mantissa == 0) {
+            return 0.0;
+        }
+        if (exponent < MIN_POWER || exponent > MAX_POWER) {
+            return Double.NaN;
+        }
+
+        int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        mantissa <<= leadingZeros;
+        long binaryExponent = (((217706L * exponent) >> 16) + 64 + 1023) - leadingZeros;
+
+        long high = multiplyHigh(mantissa, POW10_HIGH[exponent - MIN_POWER]);
+        long low = mantissa * POW10_HIGH[exponent - MIN_POWER];
+        if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + mantissa, mantissa) < 0) {
+            long secondHigh = multiplyHigh(mantissa, POW10_LOW[exponent - MIN_POWER]);
+            long secondLow = mantissa * POW10_LOW[exponent - MIN_POWER];
+            long mergedLow = low + secondHigh;
+            if (Long.compareUnsigned(mergedLow, low) < 0) {
+                high++;
+            }
+            if ((high & 0x1FF) == 0x1FF && mergedLow + 1 == 0 && Long.compareUnsigned(secondLow + mantissa, mantissa) < 0) {
+                return Double.NaN;
+            }
+            low = mergedLow;
+        }
+
+        long upperBit = high >>> 63;
+        long result = high >>> (upperBit + 9);
+        binaryExponent -= 1 ^ upperBit;
+
+        if (low == 0 && (high & 0x1FF) == 0 && (result & 3) == 1) {
+            return Double.NaN;
+        }
+
+        result += result & 1;
+        result >>>= 1;
+        if ((result >>> 53) > 0) {
+            result >>>= 1;
+            binaryExponent++;
+        }
+        if (binaryExponent <= 0 || binaryExponent >= 0x7FF) {
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(binaryExponent << 52 | (result & 0x000FFFFFFFFFFFFFL));
+    }
+
+    private static long multiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    private String text(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = window.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
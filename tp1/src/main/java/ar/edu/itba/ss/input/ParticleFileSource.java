@@ -0,0 +1,122 @@
+package ar.edu.itba.ss.input;
+
+import ar.edu.itba.ss.models.exceptions.ParticleOutOfBoundsException;
+import ar.edu.itba.ss.models.methods.OutOfCoreCellIndexMethod;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Particles of the static file and of the first frame of the dynamic file, read straight from the
+ * files every time without keeping them in memory. The header and the largest radius are read once
+ * when the source is created.
+ */
+public class ParticleFileSource implements OutOfCoreCellIndexMethod.ParticleSource {
+
+    private final Path staticPath;
+    private final Path dynamicPath;
+    private int n;
+    private int l;
+    private double rc;
+    private double maxR = 0.0;
+
+    public ParticleFileSource(String staticFilename, String dynamicFilename) throws IOException {
+        this(Paths.get("input"), staticFilename, dynamicFilename);
+    }
+
+    /**
+     * Files under the given directory instead of input/.
+     */
+    public ParticleFileSource(Path directory, String staticFilename, String dynamicFilename) throws IOException {
+        this.staticPath = resolve(directory, staticFilename);
+        this.dynamicPath = resolve(directory, dynamicFilename);
+
+        try (MappedFileReader reader = new MappedFileReader(staticPath)) {
+            if (reader.hasNextLine()) {
+                n = reader.nextInt();
+            }
+            if (reader.hasNextLine()) {
+                l = reader.nextInt();
+            }
+            boolean first = true;
+            while (reader.hasNextLine()) {
+                if (reader.nextLine() == 2) {
+                    if (first) {
+                        //We assume all rc are the same
+                        rc = reader.getToken(1);
+                        first = false;
+                    }
+                    maxR = Math.max(maxR, reader.getToken(0));
+                }
+            }
+        }
+    }
+
+    private static Path resolve(Path directory, String filename) throws FileNotFoundException {
+        if(filename == null)
+            throw  new FileNotFoundException();
+
+        Path path = directory.resolve(filename).toAbsolutePath();
+        if (!Files.isRegularFile(path))
+            throw new FileNotFoundException(path.toString());
+        return path;
+    }
+
+    @Override
+    public void read(OutOfCoreCellIndexMethod.ParticleSink sink) throws IOException {
+        try (MappedFileReader radii = new MappedFileReader(staticPath);
+             MappedFileReader positions = new MappedFileReader(dynamicPath)) {
+            // Header lines of the static file and the time of the first frame
+            radii.nextInt();
+            radii.nextInt();
+            if (!positions.hasNextLine() || positions.nextLine() != 1) {
+                throw new NumberFormatException("Se esperaba el tiempo en la primera línea");
+            }
+
+            for (int i = 0; i < n; i++) {
+                if (!nextPair(radii) || !nextPair(positions)) {
+                    throw new IllegalStateException(String.format("Expected %d particles, found %d", n, i));
+                }
+                double x = positions.getToken(0);
+                double y = positions.getToken(1);
+                if(x < 0 || x > l || y < 0 || y > l){
+                    throw new ParticleOutOfBoundsException();
+                }
+                sink.accept(i, x, y, radii.getToken(0));
+            }
+        }
+    }
+
+    // Skips blank lines, stops at the end of the file or at the time line of the next frame
+    private static boolean nextPair(MappedFileReader reader) throws IOException {
+        while (reader.hasNextLine()) {
+            int tokens = reader.nextLine();
+            if (tokens == 2) {
+                return true;
+            }
+            if (tokens == 1) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public int getL() {
+        return l;
+    }
+
+    public double getRc() {
+        return rc;
+    }
+
+    public double getMaxR() {
+        return maxR;
+    }
+}
@@ -1,16 +1,16 @@
 package ar.edu.itba.ss.input;
 
-import ar.edu.itba.ss.Main;
 import ar.edu.itba.ss.models.Particle;
 
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.net.URL;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
-import java.util.Scanner;
 
 public class StaticFile {
 
@@ -22,6 +22,10 @@ public class StaticFile {
 
     private double maxR = 0.0;
 
+    private double[] radii;
+
+    private int count = 0;
+
     private final List<Particle> particles = new ArrayList<>();
 
     public StaticFile(String filename) throws FileNotFoundException {
@@ -29,38 +33,49 @@ public class StaticFile {
         if(filename == null)
             throw  new FileNotFoundException();
 
-        Scanner scanner = new Scanner(new File(Paths.get("input/" +filename).toAbsolutePath().toString()));
+        Path path = Paths.get("input/" +filename).toAbsolutePath();
+        if (!Files.isRegularFile(path))
+            throw new FileNotFoundException(path.toString());
 
-        if (scanner.hasNextLine()) {
-            n = Integer.parseInt(scanner.nextLine().trim());
-        }
+        try (MappedFileReader reader = new MappedFileReader(path)) {
+            if (reader.hasNextLine()) {
+                n = reader.nextInt();
+            }
 
-        if(scanner.hasNextLine()){
-            l = Integer.parseInt(scanner.nextLine().trim());
-        }
+            if (reader.hasNextLine()) {
+                l = reader.nextInt();
+            }
 
-        if(scanner.hasNextLine()){
-            String line = scanner.nextLine();
-            String[] parts = line.trim().split("\\s+");
-            if (parts.length == 2) {
-                double r = Double.parseDouble(parts[0]);
-                this.maxR = Math.max(this.maxR,r);
+            radii = new double[Math.max(n, 16)];
+            if (reader.hasNextLine() && reader.nextLine() == 2) {
                 //We assume all rc are the same
-                rc = Double.parseDouble(parts[1]);
-                particles.add(new Particle(r));
+                rc = reader.getToken(1);
+                addRadius(reader.getToken(0));
             }
-        }
 
-        while (scanner.hasNextLine()){
-            String line = scanner.nextLine();
-            String[] parts = line.trim().split("\\s+");
-            if (parts.length == 2) {
-                double r = Double.parseDouble(parts[0]);
-                particles.add(new Particle(r));
+            while (reader.hasNextLine()) {
+                if (reader.nextLine() == 2) {
+                    addRadius(reader.getToken(0));
+                }
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        radii = Arrays.copyOf(radii, count);
+        for (double r : radii) {
+            this.maxR = Math.max(this.maxR, r);
+            particles.add(new Particle(r));
         }
     }
 
+    private void addRadius(double r) {
+        if (count == radii.length) {
+            radii = Arrays.copyOf(radii, count * 2);
+        }
+        radii[count++] = r;
+    }
+
     public int getL() {
         return l;
     }
@@ -77,6 +92,10 @@ public class StaticFile {
         return maxR;
     }
 
+    public double[] getRadii() {
+        return radii;
+    }
+
     public List<Particle> getParticles() {
         return particles;
     }
@@ -0,0 +1,68 @@
+package ar.edu.itba.ss.input;
+
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Positions and radii made by {@link WorkloadGenerator}, particle i of every array is the same one.
+ */
+public class Workload {
+
+    private final int l;
+    private final double rc;
+    private final double[] x, y, r;
+
+    public Workload(int l, double rc, double[] x, double[] y, double[] r) {
+        this.l = l;
+        this.rc = rc;
+        this.x = x;
+        this.y = y;
+        this.r = r;
+    }
+
+    /**
+     * Places the given particles, in order, at the positions of the workload.
+     */
+    public List<SurfaceEntity<Particle>> toEntities(List<Particle> particles) {
+        List<SurfaceEntity<Particle>> entities = new ArrayList<>(x.length);
+        for (int i = 0; i < x.length; i++) {
+            entities.add(new SurfaceEntity<>(particles.get(i), x[i], y[i]));
+        }
+        return entities;
+    }
+
+    public List<SurfaceEntity<Particle>> toEntities() {
+        List<Particle> particles = new ArrayList<>(r.length);
+        for (double radius : r) {
+            particles.add(new Particle(radius));
+        }
+        return toEntities(particles);
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    public int getL() {
+        return l;
+    }
+
+    public double getRc() {
+        return rc;
+    }
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    public double[] getR() {
+        return r;
+    }
+}
@@ -0,0 +1,459 @@
+package ar.edu.itba.ss.input;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Seeded particle positions for simulations and benchmarks. The particles are generated in fixed
+ * chunks, every chunk with its own {@link SplittableRandom} derived from the seed and the chunk
+ * index, so the same seed gives the same workload for any number of threads.
+ */
+public class WorkloadGenerator {
+
+    public enum Distribution {
+        UNIFORM,
+        // Uniform without overlaps, by dart throwing over a grid of cells of side >= 2 maxR
+        POISSON_DISK,
+        // Gaussian around CLUSTERS uniform centers, with deviation L / 50
+        CLUSTERS,
+        // Square lattice of ceil(sqrt(N)) columns, every particle moved inside the room left by its neighbours
+        LATTICE
+    }
+
+    private static final int CHUNK = 1 << 14;
+    private static final int CLUSTERS = 10;
+    private static final int MAX_ROUNDS = 256;
+    private static final int ATTEMPTS = 8;
+    private static final int MAX_ATTEMPTS_SHIFT = 4;
+    private static final int BLOCK = 32;
+    private static final int RADIUS_BINS = 256;
+    // So that the cells of the POISSON_DISK grid can be numbered with an int
+    private static final int MAX_CELLS_PER_SIDE = 46336;
+
+    // Stream purposes, so that no two uses share a stream
+    private static final long RADII = 1, POSITIONS = 2, CENTERS = 3, DARTS = 4, CELLS = 5;
+
+    private final long seed;
+    private final int threads;
+
+    public WorkloadGenerator(long seed, int threads) {
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * n radii uniform in [minR, maxR].
+     */
+    public double[] radii(int n, double minR, double maxR) {
+        double[] r = new double[n];
+        parallel(chunks(n), chunk -> {
+            SplittableRandom random = stream(RADII, chunk);
+            for (int i = chunk * CHUNK; i < Math.min(n, (chunk + 1) * CHUNK); i++) {
+                r[i] = minR == maxR ? minR : minR + random.nextDouble() * (maxR - minR);
+            }
+        });
+        return r;
+    }
+
+    /**
+     * One position in [0, l] x [0, l] for every radius.
+     */
+    public Workload generate(Distribution distribution, int l, double rc, double[] r) {
+        int n = r.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        switch (distribution) {
+            case UNIFORM:
+                parallel(chunks(n), chunk -> {
+                    SplittableRandom random = stream(POSITIONS, chunk);
+                    for (int i = chunk * CHUNK; i < Math.min(n, (chunk + 1) * CHUNK); i++) {
+                        x[i] = random.nextDouble() * l;
+                        y[i] = random.nextDouble() * l;
+                    }
+                });
+                break;
+            case POISSON_DISK:
+                poissonDisk(l, x, y, r);
+                break;
+            case CLUSTERS:
+                clusters(l, x, y);
+                break;
+            case LATTICE:
+                lattice(l, x, y, r);
+                break;
+            default:
+                throw new IllegalArgumentException("Distribución desconocida: " + distribution);
+        }
+        return new Workload(l, rc, x, y, r);
+    }
+
+    private void clusters(int l, double[] x, double[] y) {
+        int n = x.length;
+        SplittableRandom centers = stream(CENTERS, 0);
+        double[] cx = new double[CLUSTERS];
+        double[] cy = new double[CLUSTERS];
+        for (int c = 0; c < CLUSTERS; c++) {
+            cx[c] = centers.nextDouble() * l;
+            cy[c] = centers.nextDouble() * l;
+        }
+        double deviation = l / 50.0;
+
+        parallel(chunks(n), chunk -> {
+            SplittableRandom random = stream(POSITIONS, chunk);
+            for (int i = chunk * CHUNK; i < Math.min(n, (chunk + 1) * CHUNK); i++) {
+                int c = random.nextInt(CLUSTERS);
+                // Marsaglia polar method, drawn again while outside the space
+                double px, py;
+                do {
+                    double u, v, s;
+                    do {
+                        u = 2 * random.nextDouble() - 1;
+                        v = 2 * random.nextDouble() - 1;
+                        s = u * u + v * v;
+                    } while (s >= 1 || s == 0);
+                    double factor = Math.sqrt(-2 * Math.log(s) / s);
+                    px = cx[c] + u * factor * deviation;
+                    py = cy[c] + v * factor * deviation;
+                } while (px < 0 || px > l || py < 0 || py > l);
+                x[i] = px;
+                y[i] = py;
+            }
+        });
+    }
+
+    private void lattice(int l, double[] x, double[] y, double[] r) {
+        int n = x.length;
+        int columns = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+        double spacing = (double) l / columns;
+        double room = Math.max(0, spacing - 2 * maxRadius(r));
+
+        parallel(chunks(n), chunk -> {
+            SplittableRandom random = stream(POSITIONS, chunk);
+            for (int i = chunk * CHUNK; i < Math.min(n, (chunk + 1) * CHUNK); i++) {
+                x[i] = (i % columns + 0.5) * spacing + (random.nextDouble() - 0.5) * room;
+                y[i] = (i / columns + 0.5) * spacing + (random.nextDouble() - 0.5) * room;
+            }
+        });
+    }
+
+    /**
+     * Every round sorts the particles still unplaced by decreasing radius, throws one uniform dart
+     * per particle and buckets the darts by block of BLOCK x BLOCK cells, both with counting sorts.
+     * The blocks are processed in 4 phases, blocks of a phase are 2 apart so the ones processed at the
+     * same time never share a neighbour cell. Inside a block larger particles go first, every particle
+     * tries its dart and more points of the same block, more of them every round, and keeps the first
+     * one that does not overlap the particles already placed.
+     */
+    private void poissonDisk(int l, double[] x, double[] y, double[] r) {
+        int n = x.length;
+        double maxR = maxRadius(r);
+        double minR = Arrays.stream(r).min().orElse(0);
+        int m = maxR > 0 ? (int) Math.floor(l / (2 * maxR)) : Integer.MAX_VALUE;
+        m = Math.max(1, Math.min(m, Math.min(MAX_CELLS_PER_SIDE, 2 * (int) Math.ceil(Math.sqrt(n)))));
+        CellCodes codes = new CellCodes(m, (double) l / m);
+        int blockCount = codes.blocks * codes.blocks;
+
+        // Placed particles of every cell as linked lists of slots, indexed by cell code
+        int[] head = new int[codes.size()];
+        Arrays.fill(head, -1);
+        Slots slots = new Slots(n + n / 2);
+
+        int[] pending = new int[n];
+        int[] sorted = new int[n];
+        for (int p = 0; p < n; p++) {
+            pending[p] = p;
+        }
+        int pendingCount = n;
+        int[] radiusStart = new int[RADIUS_BINS + 1];
+        double[] dartX = new double[n];
+        double[] dartY = new double[n];
+        int[] dartBlock = new int[n];
+        int[] blockStart = new int[blockCount + 1];
+        double[] bucketX = new double[n];
+        double[] bucketY = new double[n];
+        int[] bucketParticle = new int[n];
+        boolean[] placed = new boolean[n];
+        int[][] phaseBlocks = new int[4][];
+        int[] phaseCount = new int[4];
+
+        for (int round = 0; round < MAX_ROUNDS && pendingCount > 0; round++) {
+            long key = (long) round << 32;
+            int attempts = ATTEMPTS << Math.min(round, MAX_ATTEMPTS_SHIFT);
+            int count = pendingCount;
+            int base = slots.grow(count);
+
+            Arrays.fill(radiusStart, 0);
+            for (int k = 0; k < count; k++) {
+                radiusStart[radiusBin(r[pending[k]], minR, maxR) + 1]++;
+            }
+            for (int bin = 0; bin < RADIUS_BINS; bin++) {
+                radiusStart[bin + 1] += radiusStart[bin];
+            }
+            for (int k = 0; k < count; k++) {
+                sorted[radiusStart[radiusBin(r[pending[k]], minR, maxR)]++] = pending[k];
+            }
+
+            parallel(chunks(count), chunk -> {
+                SplittableRandom random = stream(DARTS, key | chunk);
+                for (int k = chunk * CHUNK; k < Math.min(count, (chunk + 1) * CHUNK); k++) {
+                    dartX[k] = random.nextDouble() * l;
+                    dartY[k] = random.nextDouble() * l;
+                    dartBlock[k] = codes.block(codes.of(dartX[k], dartY[k]));
+                }
+            });
+
+            Arrays.fill(blockStart, 0);
+            for (int k = 0; k < count; k++) {
+                blockStart[dartBlock[k] + 1]++;
+            }
+            Arrays.fill(phaseCount, 0);
+            for (int block = 0; block < blockCount; block++) {
+                if (blockStart[block + 1] > 0) {
+                    int phase = codes.phase(block);
+                    if (phaseBlocks[phase] == null || phaseBlocks[phase].length == phaseCount[phase]) {
+                        phaseBlocks[phase] = phaseBlocks[phase] == null ? new int[16] : Arrays.copyOf(phaseBlocks[phase], phaseCount[phase] * 2);
+                    }
+                    phaseBlocks[phase][phaseCount[phase]++] = block;
+                }
+                blockStart[block + 1] += blockStart[block];
+            }
+            int[] filled = Arrays.copyOf(blockStart, blockCount);
+            for (int k = 0; k < count; k++) {
+                int position = filled[dartBlock[k]]++;
+                bucketX[position] = dartX[k];
+                bucketY[position] = dartY[k];
+                bucketParticle[position] = sorted[k];
+            }
+
+            for (int phase = 0; phase < 4; phase++) {
+                int[] blocks = phaseBlocks[phase];
+                parallel(phaseCount[phase], index -> {
+                    int block = blocks[index];
+                    SplittableRandom random = stream(CELLS, key | block);
+                    // Any cell of the block can be written, its neighbours are never in a block of the same phase
+                    double fromX = codes.column(block * BLOCK * BLOCK) * codes.side;
+                    double fromY = codes.row(block * BLOCK * BLOCK) * codes.side;
+                    double width = Math.min(BLOCK * codes.side, l - fromX);
+                    double height = Math.min(BLOCK * codes.side, l - fromY);
+                    for (int k = blockStart[block]; k < blockStart[block + 1]; k++) {
+                        int p = bucketParticle[k];
+                        double px = bucketX[k];
+                        double py = bucketY[k];
+                        for (int attempt = 0; attempt < attempts; attempt++) {
+                            if (attempt > 0) {
+                                px = Math.min(l, fromX + random.nextDouble() * width);
+                                py = Math.min(l, fromY + random.nextDouble() * height);
+                            }
+                            int code = codes.of(px, py);
+                            if (slots.fits(px, py, r[p], codes.row(code), codes.column(code), head, codes)) {
+                                slots.place(base + k, p, px, py, r[p], code, head);
+                                placed[k] = true;
+                                break;
+                            }
+                        }
+                    }
+                });
+            }
+
+            pendingCount = 0;
+            for (int k = 0; k < count; k++) {
+                if (!placed[k]) {
+                    pending[pendingCount++] = bucketParticle[k];
+                }
+                placed[k] = false;
+            }
+        }
+
+        if (pendingCount > 0) {
+            throw new IllegalStateException(String.format("No se pudieron ubicar %d partículas sin superponerse, la densidad es muy alta", pendingCount));
+        }
+        slots.copyTo(x, y);
+    }
+
+    // Bin 0 holds the largest radii
+    private static int radiusBin(double r, double minR, double maxR) {
+        return maxR > minR ? (int) ((maxR - r) / (maxR - minR) * (RADIUS_BINS - 1)) : 0;
+    }
+
+    /**
+     * Cells numbered block by block, BLOCK x BLOCK cells each, so the cells of a block are together.
+     */
+    private static class CellCodes {
+        private final int m;
+        private final int blocks;
+        private final double side;
+
+        CellCodes(int m, double side) {
+            this.m = m;
+            this.side = side;
+            this.blocks = (m + BLOCK - 1) / BLOCK;
+        }
+
+        int size() {
+            return blocks * blocks * BLOCK * BLOCK;
+        }
+
+        int of(double x, double y) {
+            return code((int) Math.min(y / side, m - 1), (int) Math.min(x / side, m - 1));
+        }
+
+        int code(int i, int j) {
+            return ((i / BLOCK) * blocks + j / BLOCK) * BLOCK * BLOCK + (i % BLOCK) * BLOCK + j % BLOCK;
+        }
+
+        int block(int code) {
+            return code / (BLOCK * BLOCK);
+        }
+
+        int phase(int block) {
+            return (block / blocks) % 2 * 2 + block % blocks % 2;
+        }
+
+        int row(int code) {
+            return block(code) / blocks * BLOCK + code % (BLOCK * BLOCK) / BLOCK;
+        }
+
+        int column(int code) {
+            return block(code) % blocks * BLOCK + code % BLOCK;
+        }
+    }
+
+    /**
+     * Placed particles with the x, y, r of every slot together. Slots are numbered by round and
+     * sorted dart, so the particles of neighbouring cells are close in memory.
+     */
+    private static class Slots {
+        private double[] xyr;
+        private int[] next;
+        private int[] particle;
+        private int size = 0;
+
+        Slots(int capacity) {
+            this.xyr = new double[3 * capacity];
+            this.next = new int[capacity];
+            this.particle = new int[capacity];
+        }
+
+        // Adds count free slots and returns the first one
+        int grow(int count) {
+            int base = size;
+            size += count;
+            if (size > next.length) {
+                int capacity = Math.max(size, next.length + next.length / 2);
+                xyr = Arrays.copyOf(xyr, 3 * capacity);
+                next = Arrays.copyOf(next, capacity);
+                particle = Arrays.copyOf(particle, capacity);
+            }
+            Arrays.fill(particle, base, size, -1);
+            return base;
+        }
+
+        void place(int slot, int p, double x, double y, double r, int code, int[] head) {
+            xyr[3 * slot] = x;
+            xyr[3 * slot + 1] = y;
+            xyr[3 * slot + 2] = r;
+            particle[slot] = p;
+            next[slot] = head[code];
+            head[code] = slot;
+        }
+
+        boolean fits(double x, double y, double r, int i, int j, int[] head, CellCodes codes) {
+            for (int ni = Math.max(0, i - 1); ni <= Math.min(codes.m - 1, i + 1); ni++) {
+                for (int nj = Math.max(0, j - 1); nj <= Math.min(codes.m - 1, j + 1); nj++) {
+                    for (int q = head[codes.code(ni, nj)]; q >= 0; q = next[q]) {
+                        double dx = xyr[3 * q] - x;
+                        double dy = xyr[3 * q + 1] - y;
+                        double contact = xyr[3 * q + 2] + r;
+                        if (dx * dx + dy * dy < contact * contact) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        void copyTo(double[] x, double[] y) {
+            for (int slot = 0; slot < size; slot++) {
+                if (particle[slot] >= 0) {
+                    x[particle[slot]] = xyr[3 * slot];
+                    y[particle[slot]] = xyr[3 * slot + 1];
+                }
+            }
+        }
+    }
+
+    private static double maxRadius(double[] r) {
+        double maxR = 0;
+        for (double radius : r) {
+            maxR = Math.max(maxR, radius);
+        }
+        return maxR;
+    }
+
+    private static int chunks(int n) {
+        return (n + CHUNK - 1) / CHUNK;
+    }
+
+    private SplittableRandom stream(long purpose, long key) {
+        return new SplittableRandom(mix(seed + mix(purpose * 0x9e3779b97f4a7c15L + key)));
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Runs task for every index in [0, tasks), in the calling thread when there is a single worker.
+     */
+    private void parallel(int tasks, IntConsumer task) {
+        if (threads <= 1 || tasks <= 1) {
+            for (int t = 0; t < tasks; t++) {
+                task.accept(t);
+            }
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new RangeTask(task, 0, tasks, Math.max(1, tasks / (threads * 8))));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer task;
+        private final int from, to, chunk;
+
+        RangeTask(IntConsumer task, int from, int to, int chunk) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunk) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(task, from, middle, chunk), new RangeTask(task, middle, to, chunk));
+                return;
+            }
+            for (int t = from; t < to; t++) {
+                task.accept(t);
+            }
+        }
+    }
+}
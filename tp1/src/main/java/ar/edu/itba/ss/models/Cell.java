@@ -2,9 +2,6 @@ package ar.edu.itba.ss.models;
 
 import ar.edu.itba.ss.models.entity.Entity;
 import ar.edu.itba.ss.models.entity.SurfaceEntity;
-import ar.edu.itba.ss.models.geometry.Circle;
-import ar.edu.itba.ss.models.geometry.Edge;
-import ar.edu.itba.ss.models.geometry.Point;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -15,9 +12,8 @@ public class Cell<T extends Entity> {
 
     private final int i, j;
 
+    // Bounds are computed from (i, j, size) when needed, a cell only stores its indexes
     private final double size;
-    private final Point top_left, top_right, bottom_left, bottom_right;
-    private final Edge left, right, top, bottom;
     private final List<SurfaceEntity<T>> entities;
 
     public Cell(int i, int j, double size) {
@@ -25,16 +21,6 @@ public class Cell<T extends Entity> {
         this.j = j;
         this.size = size;
         this.entities = new ArrayList<>();
-
-        this.top_left = new Point(j*size,i*size);
-        this.bottom_left = new Point(j*size,(i+1)*size);
-        this.top_right = new Point((j+1)*size,i*size);
-        this.bottom_right = new Point((j+1)*size,(i+1)*size);
-
-        this.left = new Edge(top_left, bottom_left);
-        this.right = new Edge(top_right,bottom_right);
-        this.top = new Edge(top_left, top_right);
-        this.bottom = new Edge(bottom_left, bottom_right);
     }
 
     public void place(T entity, double x, double y) {
@@ -45,6 +31,10 @@ public class Cell<T extends Entity> {
         this.entities.add(surfaceEntity);
     }
 
+    public boolean remove(SurfaceEntity<T> surfaceEntity) {
+        return this.entities.remove(surfaceEntity);
+    }
+
     public int getI() {
         return i;
     }
@@ -65,10 +55,34 @@ public class Cell<T extends Entity> {
         return size;
     }
 
+    public double getMinX() {
+        return j * size;
+    }
+
+    public double getMaxX() {
+        return (j + 1) * size;
+    }
+
+    public double getMinY() {
+        return i * size;
+    }
+
+    public double getMaxY() {
+        return (i + 1) * size;
+    }
+
+    /**
+     * True when the border of the cell is at most r from (x, y). A circle strictly inside the cell
+     * that does not reach any side is not counted, same as measuring the distance to each edge.
+     */
     public boolean intersectCircle(double x, double y, double r){
-        Circle circle = new Circle(r,new Point(x,y));
-        return top.distance(circle.getCenter()) <= r || bottom.distance(circle.getCenter()) <= r
-                || left.distance(circle.getCenter()) <= r || right.distance(circle.getCenter()) <=r;
+        double minX = getMinX(), maxX = getMaxX(), minY = getMinY(), maxY = getMaxY();
+        if (x > minX && x < maxX && y > minY && y < maxY) {
+            return Math.min(Math.min(x - minX, maxX - x), Math.min(y - minY, maxY - y)) <= r;
+        }
+        double dx = Math.max(0, Math.max(minX - x, x - maxX));
+        double dy = Math.max(0, Math.max(minY - y, y - maxY));
+        return dx * dx + dy * dy <= r * r;
     }
 
     public List<SurfaceEntity<T>> getEntities() {
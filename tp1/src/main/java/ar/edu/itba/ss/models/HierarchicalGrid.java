@@ -0,0 +1,124 @@
+package ar.edu.itba.ss.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stack of {@link PrimitiveGrid}s for particles of very different radii. Radius bounds halve from
+ * maxR downwards while that still shrinks the cell side rc + 2R by at least a quarter, every particle
+ * goes to the finest level whose bound covers its radius and every level gets cells of side
+ * rc + 2 (largest radius in the level). Level 0 is the finest one.
+ */
+public class HierarchicalGrid {
+
+    private static final double MIN_SHRINK = 0.75;
+    private static final int MAX_LEVELS = 16;
+
+    private final int size;
+    private final PrimitiveGrid[] grids;
+    private final int[][] members;
+    private final double[] maxR;
+
+    public HierarchicalGrid(int size, double rc, double[] x, double[] y, double[] r) {
+        this.size = size;
+        int n = x.length;
+
+        double largest = 0;
+        double smallest = Double.POSITIVE_INFINITY;
+        for (double radius : r) {
+            largest = Math.max(largest, radius);
+            smallest = Math.min(smallest, radius);
+        }
+
+        // Bounds from coarse to fine
+        List<Double> bounds = new ArrayList<>();
+        bounds.add(largest);
+        double bound = largest;
+        while (bounds.size() < MAX_LEVELS && bound / 2 >= smallest && rc + bound <= MIN_SHRINK * (rc + 2 * bound)) {
+            bound /= 2;
+            bounds.add(bound);
+        }
+
+        int levels = bounds.size();
+        int[] level = new int[n];
+        int[] counts = new int[levels];
+        for (int p = 0; p < n; p++) {
+            // Finest level (largest index in bounds) whose bound is at least r[p]
+            int coarse = 0;
+            while (coarse + 1 < levels && r[p] <= bounds.get(coarse + 1)) {
+                coarse++;
+            }
+            level[p] = levels - 1 - coarse;
+            counts[level[p]]++;
+        }
+
+        int used = 0;
+        int[] compact = new int[levels];
+        for (int l = 0; l < levels; l++) {
+            compact[l] = counts[l] > 0 ? used++ : -1;
+        }
+
+        this.grids = new PrimitiveGrid[used];
+        this.members = new int[used][];
+        this.maxR = new double[used];
+        int[] filled = new int[used];
+        for (int l = 0; l < levels; l++) {
+            if (compact[l] >= 0) {
+                members[compact[l]] = new int[counts[l]];
+            }
+        }
+        for (int p = 0; p < n; p++) {
+            int l = compact[level[p]];
+            members[l][filled[l]++] = p;
+            maxR[l] = Math.max(maxR[l], r[p]);
+        }
+
+        for (int l = 0; l < used; l++) {
+            int count = members[l].length;
+            double[] levelX = new double[count];
+            double[] levelY = new double[count];
+            double[] levelR = new double[count];
+            for (int k = 0; k < count; k++) {
+                levelX[k] = x[members[l][k]];
+                levelY[k] = y[members[l][k]];
+                levelR[k] = r[members[l][k]];
+            }
+            // Cells never smaller than the interaction range, nor much more than needed for the particles of the level
+            int m = (int) Math.floor(size / (rc + 2 * maxR[l]));
+            m = Math.max(1, Math.min(m, 2 * (int) Math.ceil(Math.sqrt(count))));
+            grids[l] = new PrimitiveGrid(size, m, levelX, levelY, levelR);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getLevels() {
+        return grids.length;
+    }
+
+    public PrimitiveGrid getGrid(int level) {
+        return grids[level];
+    }
+
+    /**
+     * Original index of the particle at index p of the given level.
+     */
+    public int getMember(int level, int p) {
+        return members[level][p];
+    }
+
+    public double getMaxR(int level) {
+        return maxR[level];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int l = 0; l < grids.length; l++) {
+            builder.append(String.format("level %d: %d particles, R <= %.4f, M = %d%n", l, members[l].length, maxR[l], grids[l].getNumCells()));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,158 @@
+package ar.edu.itba.ss.models;
+
+import ar.edu.itba.ss.models.methods.PairVisitor;
+
+/**
+ * Bucketed 2d tree over primitive arrays. Every node splits its particles at the median of the
+ * widest side of its bounding box until at most BUCKET_SIZE particles are left, so the depth only
+ * depends on N and not on how the particles are distributed. Coordinates are copied in tree
+ * order, the particles of a leaf are contiguous.
+ */
+public class KdTree {
+
+    public static final int BUCKET_SIZE = 8;
+
+    private final double[] x, y, r;
+    private final int[] originalIndex;
+    private final int[] nodeStart, nodeEnd, nodeRight;
+    private final double[] minX, maxX, minY, maxY, maxR;
+    private final int[] stack;
+    private int nodes = 0;
+    private int depth = 0;
+
+    public KdTree(double[] x, double[] y, double[] r) {
+        int n = x.length;
+        int[] order = new int[n];
+        for (int p = 0; p < n; p++) {
+            order[p] = p;
+        }
+
+        int capacity = 2 * Math.max(1, n);
+        this.nodeStart = new int[capacity];
+        this.nodeEnd = new int[capacity];
+        this.nodeRight = new int[capacity];
+        this.minX = new double[capacity];
+        this.maxX = new double[capacity];
+        this.minY = new double[capacity];
+        this.maxY = new double[capacity];
+        this.maxR = new double[capacity];
+
+        build(x, y, r, order, 0, n, 1);
+
+        this.x = new double[n];
+        this.y = new double[n];
+        this.r = new double[n];
+        this.originalIndex = order;
+        for (int p = 0; p < n; p++) {
+            this.x[p] = x[order[p]];
+            this.y[p] = y[order[p]];
+            this.r[p] = r[order[p]];
+        }
+        this.stack = new int[depth + 2];
+    }
+
+    // Nodes are stored in preorder, so the left child of a node is always the next one
+    private int build(double[] x, double[] y, double[] r, int[] order, int from, int to, int level) {
+        int node = nodes++;
+        depth = Math.max(depth, level);
+        nodeStart[node] = from;
+        nodeEnd[node] = to;
+
+        double lowX = Double.POSITIVE_INFINITY, highX = Double.NEGATIVE_INFINITY;
+        double lowY = Double.POSITIVE_INFINITY, highY = Double.NEGATIVE_INFINITY;
+        double radius = 0;
+        for (int k = from; k < to; k++) {
+            int p = order[k];
+            lowX = Math.min(lowX, x[p]);
+            highX = Math.max(highX, x[p]);
+            lowY = Math.min(lowY, y[p]);
+            highY = Math.max(highY, y[p]);
+            radius = Math.max(radius, r[p]);
+        }
+        minX[node] = lowX;
+        maxX[node] = highX;
+        minY[node] = lowY;
+        maxY[node] = highY;
+        maxR[node] = radius;
+
+        if (to - from <= BUCKET_SIZE) {
+            nodeRight[node] = -1;
+            return node;
+        }
+
+        int middle = (from + to) >>> 1;
+        select(highX - lowX >= highY - lowY ? x : y, order, from, to - 1, middle);
+        build(x, y, r, order, from, middle, level + 1);
+        nodeRight[node] = build(x, y, r, order, middle, to, level + 1);
+        return node;
+    }
+
+    // Leaves order[k] with the k-th smallest key in [left, right], smaller keys before it and larger after
+    private static void select(double[] keys, int[] order, int left, int right, int k) {
+        while (left < right) {
+            double pivot = keys[order[(left + right) >>> 1]];
+            int i = left, j = right;
+            while (i <= j) {
+                while (keys[order[i]] < pivot) i++;
+                while (keys[order[j]] > pivot) j--;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    /**
+     * Visits every particle with an original index greater than current whose border is at most
+     * rc from the circle (qx, qy, qr), with the same distance as the other methods:
+     * (distance between centers - r) - qr. A node is skipped when its bounding box is farther
+     * than rc + qr + the largest radius inside it. Not thread safe, the traversal stack is shared.
+     */
+    public void forEachNeighbour(int current, double qx, double qy, double qr, double rc, PairVisitor visitor) {
+        double reach = rc + qr;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            double dx = Math.max(0, Math.max(minX[node] - qx, qx - maxX[node]));
+            double dy = Math.max(0, Math.max(minY[node] - qy, qy - maxY[node]));
+            double bound = reach + maxR[node];
+            if (dx * dx + dy * dy > bound * bound) {
+                continue;
+            }
+
+            if (nodeRight[node] < 0) {
+                for (int p = nodeStart[node]; p < nodeEnd[node]; p++) {
+                    int neighbour = originalIndex[p];
+                    if (neighbour <= current) {
+                        continue;
+                    }
+                    double px = x[p] - qx;
+                    double py = y[p] - qy;
+                    double distance = (Math.sqrt(px * px + py * py) - r[p]) - qr;
+                    if (distance <= rc) {
+                        visitor.visit(current, neighbour, distance);
+                    }
+                }
+            } else {
+                stack[top++] = nodeRight[node];
+                stack[top++] = node + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package ar.edu.itba.ss.models;
+
+import java.util.Arrays;
+
+/**
+ * Cell grid with the particles copied in cell order as floats: x, y and r of the particle at position k
+ * are packedX[k], packedY[k] and packedR[k]. Coordinates are stored relative to the corner of
+ * their cell, so their precision depends on the cell side and not on the size of the space. The double
+ * arrays it was built from are kept, indexed by original index, for the pairs that need full precision,
+ * so the grid holds more bytes per particle than a {@link PrimitiveGrid} over the same arrays.
+ */
+public class PackedGrid {
+
+    // Bound, in ulps of the largest value involved, for the error of a distance computed in float
+    private static final int ERROR_ULPS = 16;
+
+    private final int size;
+    private final int numCells;
+    private final double side;
+    private final float[] packedX, packedY, packedR;
+    private final int[] cellStart;
+    private final int[] originalIndex;
+    private final double[] x, y, r;
+    private final double maxR;
+
+    public PackedGrid(int size, int numCells, double[] x, double[] y, double[] r) {
+        this.size = size;
+        this.numCells = numCells;
+        this.side = (double) size / numCells;
+        this.x = x;
+        this.y = y;
+        this.r = r;
+
+        int n = x.length;
+        int totalCells = numCells * numCells;
+        int[] particleCell = new int[n];
+        this.cellStart = new int[totalCells + 1];
+        double largest = 0;
+        for (int p = 0; p < n; p++) {
+            particleCell[p] = cellIndex(row(y[p]), column(x[p]));
+            cellStart[particleCell[p] + 1]++;
+            largest = Math.max(largest, r[p]);
+        }
+        this.maxR = largest;
+        for (int c = 0; c < totalCells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        this.packedX = new float[n];
+        this.packedY = new float[n];
+        this.packedR = new float[n];
+        this.originalIndex = new int[n];
+        int[] next = Arrays.copyOf(cellStart, totalCells);
+        for (int p = 0; p < n; p++) {
+            int k = next[particleCell[p]]++;
+            int cell = particleCell[p];
+            packedX[k] = (float) (x[p] - (cell % numCells) * side);
+            packedY[k] = (float) (y[p] - (cell / numCells) * side);
+            packedR[k] = (float) r[p];
+            originalIndex[k] = p;
+        }
+    }
+
+    private int row(double pY) {
+        return (int) Math.min(pY * numCells / size, numCells - 1);
+    }
+
+    private int column(double pX) {
+        return (int) Math.min(pX * numCells / size, numCells - 1);
+    }
+
+    /**
+     * Distances computed from the packed floats of particles at most one cell apart are within this
+     * margin of the ones computed in double from the original arrays.
+     */
+    public double errorMargin(double rc) {
+        return ERROR_ULPS * Math.ulp((float) (2 * side + 2 * maxR + rc));
+    }
+
+    /**
+     * Bytes held by the grid: the packed floats, the index arrays and the double arrays kept for the rechecks.
+     */
+    public long getBytes() {
+        return 12L * packedX.length + 4L * cellStart.length + 4L * originalIndex.length
+                + 8L * (x.length + y.length + r.length);
+    }
+
+    public int cellIndex(int i, int j) {
+        return i * numCells + j;
+    }
+
+    public boolean isValidCell(int i, int j) {
+        return i >= 0 && i < numCells && j >= 0 && j < numCells;
+    }
+
+    public int getCellStart(int cell) {
+        return cellStart[cell];
+    }
+
+    public int getCellEnd(int cell) {
+        return cellStart[cell + 1];
+    }
+
+    public int getOriginalIndex(int position) {
+        return originalIndex[position];
+    }
+
+    public float[] getPackedX() {
+        return packedX;
+    }
+
+    public float[] getPackedY() {
+        return packedY;
+    }
+
+    public float[] getPackedR() {
+        return packedR;
+    }
+
+    public double getSide() {
+        return side;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumCells() {
+        return numCells;
+    }
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    public double[] getR() {
+        return r;
+    }
+}
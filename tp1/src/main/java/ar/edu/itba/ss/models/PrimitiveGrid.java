@@ -0,0 +1,187 @@
+package ar.edu.itba.ss.models;
+
+import java.util.Arrays;
+
+/**
+ * Cell grid stored as flat arrays. Particles are binned with a counting sort so that the
+ * indexes of the particles of cell c are particleIndex[cellStart[c]] .. particleIndex[cellStart[c+1]-1].
+ * Cells are numbered row by row (c = i * numCells + j), using the same (i, j) convention as {@link SquareGrid}.
+ */
+public class PrimitiveGrid {
+
+    // Largest M whose M^2 + 1 cell starts fit in an int array
+    public static final int MAX_NUM_CELLS = 46340;
+
+    private final int size;
+    private final int numCells;
+    private final double[] x, y, r;
+    private final int[] cellStart;
+    private final int[] particleIndex;
+    private final int[] originalIndex;
+
+    public PrimitiveGrid(int size, int numCells, double[] x, double[] y, double[] r) {
+        this(size, numCells, x, y, r, null);
+    }
+
+    private PrimitiveGrid(int size, int numCells, double[] x, double[] y, double[] r, int[] originalIndex) {
+        this.size = size;
+        this.numCells = numCells;
+        this.x = x;
+        this.y = y;
+        this.r = r;
+        this.originalIndex = originalIndex;
+
+        int n = x.length;
+        int totalCells = totalCells(numCells);
+        int[] particleCell = new int[n];
+        this.cellStart = new int[totalCells + 1];
+        this.particleIndex = new int[n];
+
+        for (int p = 0; p < n; p++) {
+            particleCell[p] = locate(x[p], y[p]);
+            cellStart[particleCell[p] + 1]++;
+        }
+        for (int c = 0; c < totalCells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] next = Arrays.copyOf(cellStart, totalCells);
+        for (int p = 0; p < n; p++) {
+            particleIndex[next[particleCell[p]]++] = p;
+        }
+    }
+
+    /**
+     * Grid over a copy of the particles sorted by the Morton (Z-order) code of their cell, so particles of the same
+     * and of nearby cells are contiguous in memory. Particle indexes in this grid are positions in that order,
+     * {@link #getOriginalIndex} maps them back to the given arrays.
+     */
+    public static PrimitiveGrid mortonOrdered(int size, int numCells, double[] x, double[] y, double[] r) {
+        int n = x.length;
+        int totalCells = totalCells(numCells);
+        int[] particleCell = new int[n];
+        int[] cellPosition = new int[totalCells];
+        int occupied = 0;
+        for (int p = 0; p < n; p++) {
+            int cellX = (int) Math.min(x[p] * numCells / size, numCells - 1);
+            int cellY = (int) Math.min(y[p] * numCells / size, numCells - 1);
+            particleCell[p] = cellY * numCells + cellX;
+            if (cellPosition[particleCell[p]]++ == 0) {
+                occupied++;
+            }
+        }
+
+        // Only the occupied cells are sorted, by code and then by cell, which fits below the code
+        long[] keys = new long[occupied];
+        int k = 0;
+        for (int c = 0; c < totalCells; c++) {
+            if (cellPosition[c] > 0) {
+                keys[k++] = morton(c / numCells, c % numCells) << 31 | c;
+            }
+        }
+        Arrays.sort(keys);
+        int start = 0;
+        for (long key : keys) {
+            int cell = (int) (key & Integer.MAX_VALUE);
+            int count = cellPosition[cell];
+            cellPosition[cell] = start;
+            start += count;
+        }
+
+        double[] sortedX = new double[n];
+        double[] sortedY = new double[n];
+        double[] sortedR = new double[n];
+        int[] originalIndex = new int[n];
+        for (int p = 0; p < n; p++) {
+            int position = cellPosition[particleCell[p]]++;
+            sortedX[position] = x[p];
+            sortedY[position] = y[p];
+            sortedR[position] = r[p];
+            originalIndex[position] = p;
+        }
+
+        return new PrimitiveGrid(size, numCells, sortedX, sortedY, sortedR, originalIndex);
+    }
+
+    /**
+     * Interleaves the bits of i and j, i takes the odd bits.
+     */
+    public static long morton(int i, int j) {
+        return ((long) spread(i) << 1) | spread(j);
+    }
+
+    private static int spread(int v) {
+        v &= 0xFFFF;
+        v = (v | (v << 8)) & 0x00FF00FF;
+        v = (v | (v << 4)) & 0x0F0F0F0F;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+
+    // cellStart holds numCells^2 + 1 ints
+    private static int totalCells(int numCells) {
+        if (numCells < 1 || numCells > MAX_NUM_CELLS) {
+            throw new IllegalArgumentException("M debe estar entre 1 y " + MAX_NUM_CELLS + ", es " + numCells);
+        }
+        return numCells * numCells;
+    }
+
+    public int getOriginalIndex(int particle) {
+        return originalIndex == null ? particle : originalIndex[particle];
+    }
+
+    /**
+     * Bytes held by the grid: coordinates, radii and index arrays.
+     */
+    public long getBytes() {
+        return 8L * (x.length + y.length + r.length) + 4L * (cellStart.length + particleIndex.length)
+                + (originalIndex == null ? 0 : 4L * originalIndex.length);
+    }
+
+    public int locate(double pX, double pY) {
+        int cellX = (int) Math.min(pX * numCells / size, numCells - 1);
+        int cellY = (int) Math.min(pY * numCells / size, numCells - 1);
+
+        return cellIndex(cellY, cellX);
+    }
+
+    public int cellIndex(int i, int j) {
+        return i * numCells + j;
+    }
+
+    public boolean isValidCell(int i, int j) {
+        return i >= 0 && i < numCells && j >= 0 && j < numCells;
+    }
+
+    public int getCellStart(int cell) {
+        return cellStart[cell];
+    }
+
+    public int getCellEnd(int cell) {
+        return cellStart[cell + 1];
+    }
+
+    public int getParticle(int position) {
+        return particleIndex[position];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumCells() {
+        return numCells;
+    }
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    public double[] getR() {
+        return r;
+    }
+}
@@ -0,0 +1,130 @@
+package ar.edu.itba.ss.models;
+
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import ar.edu.itba.ss.models.exceptions.ParticleOutOfBoundsException;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Long lived {@link SquareGrid} that is kept up to date as particles are inserted, moved and removed,
+ * so repeated neighbour queries do not rebuild the grid. A move that stays in the same cell only updates
+ * the coordinates, particles are re-binned only when they cross a cell boundary.
+ */
+public class SpatialIndex {
+
+    private final SquareGrid<Particle> grid;
+    private final int l;
+    private final double cellSize;
+    private final Map<SurfaceEntity<Particle>, Cell<Particle>> locations = new IdentityHashMap<>();
+    private double maxR = 0.0;
+
+    public SpatialIndex(int l, int m) {
+        this.grid = new SquareGrid<>(l, m);
+        this.l = l;
+        this.cellSize = (double) l / m;
+    }
+
+    public SpatialIndex(int l, int m, List<SurfaceEntity<Particle>> particles) {
+        this(l, m);
+        particles.forEach(this::insert);
+    }
+
+    public void insert(SurfaceEntity<Particle> particle) {
+        if (locations.containsKey(particle)) {
+            throw new IllegalArgumentException("The particle is already in the index: " + particle);
+        }
+        checkBounds(particle.getX(), particle.getY());
+        Cell<Particle> cell = grid.locate(particle.getX(), particle.getY());
+        cell.place(particle);
+        locations.put(particle, cell);
+        maxR = Math.max(maxR, particle.getEntity().getRadius());
+    }
+
+    /**
+     * Updates the position of the particle, returns true if it had to be moved to another cell. A position
+     * outside [0, l] leaves the particle as it was.
+     */
+    public boolean move(SurfaceEntity<Particle> particle, double x, double y) {
+        Cell<Particle> current = locations.get(particle);
+        if (current == null) {
+            throw new IllegalArgumentException("The particle is not in the index: " + particle);
+        }
+        checkBounds(x, y);
+        Cell<Particle> next = grid.locate(x, y);
+        particle.setX(x);
+        particle.setY(y);
+        if (next == current) {
+            return false;
+        }
+        current.remove(particle);
+        next.place(particle);
+        locations.put(particle, next);
+        return true;
+    }
+
+    private void checkBounds(double x, double y) {
+        if (x < 0 || x > l || y < 0 || y > l) {
+            throw new ParticleOutOfBoundsException();
+        }
+    }
+
+    public boolean remove(SurfaceEntity<Particle> particle) {
+        Cell<Particle> cell = locations.remove(particle);
+        return cell != null && cell.remove(particle);
+    }
+
+    public boolean contains(SurfaceEntity<Particle> particle) {
+        return locations.containsKey(particle);
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    /**
+     * Particles whose border is at most rc away from the point (x, y).
+     */
+    public List<SurfaceEntity<Particle>> queryRadius(double x, double y, double rc) {
+        return query(x, y, 0, rc, null);
+    }
+
+    /**
+     * Particles whose border is at most rc away from the border of the given particle, the particle excluded.
+     */
+    public List<SurfaceEntity<Particle>> queryNeighbours(SurfaceEntity<Particle> particle, double rc) {
+        return query(particle.getX(), particle.getY(), particle.getEntity().getRadius(), rc, particle);
+    }
+
+    private List<SurfaceEntity<Particle>> query(double x, double y, double r, double rc, SurfaceEntity<Particle> excluded) {
+        List<SurfaceEntity<Particle>> results = new ArrayList<>();
+        int m = grid.getNumCells();
+        double reach = rc + r + maxR;
+
+        int fromI = Math.max(0, (int) Math.floor((y - reach) / cellSize));
+        int toI = Math.min(m - 1, (int) Math.floor((y + reach) / cellSize));
+        int fromJ = Math.max(0, (int) Math.floor((x - reach) / cellSize));
+        int toJ = Math.min(m - 1, (int) Math.floor((x + reach) / cellSize));
+
+        for (int i = fromI; i <= toI; i++) {
+            for (int j = fromJ; j <= toJ; j++) {
+                for (SurfaceEntity<Particle> candidate : grid.getCell(i, j).getEntities()) {
+                    double dx = candidate.getX() - x;
+                    double dy = candidate.getY() - y;
+                    double distance = (Math.sqrt(dx * dx + dy * dy) - candidate.getEntity().getRadius()) - r;
+                    if (distance <= rc && candidate != excluded) {
+                        results.add(candidate);
+                    }
+                }
+            }
+        }
+
+        return results;
+    }
+
+    public SquareGrid<Particle> getGrid() {
+        return grid;
+    }
+}
@@ -4,8 +4,12 @@ import ar.edu.itba.ss.models.entity.Entity;
 import ar.edu.itba.ss.models.entity.SurfaceEntity;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class SquareGrid<T extends Entity> {
 
@@ -33,7 +37,17 @@ public class SquareGrid<T extends Entity> {
     }
 
     public void place(SurfaceEntity<T> entity, double x, double y, double r) {
-        locate(x,y,r).forEach(c->c.place(entity));
+        int cellX = (int) Math.min(x * numCells / size, numCells - 1);
+        int cellY = (int) Math.min(y * numCells / size, numCells - 1);
+
+        for (int[] offset : TraversalOffset.EIGHT_NEIGHBOURS) {
+            int i = cellY + offset[0];
+            int j = cellX + offset[1];
+            if ((i != cellY || j != cellX) && isValidCell(i, j) && cells.get(i).get(j).intersectCircle(x, y, r)) {
+                cells.get(i).get(j).place(entity);
+            }
+        }
+        cells.get(cellY).get(cellX).place(entity);
     }
 
     public void place(SurfaceEntity<T> surfaceEntity) {
@@ -47,19 +61,24 @@ public class SquareGrid<T extends Entity> {
         return cells.get(cellY).get(cellX);
     }
 
+    public Cell<T> getCell(int i, int j) {
+        return cells.get(i).get(j);
+    }
+
     public List<Cell<T>> locate(double pX, double pY, double r) {
         int cellX = (int) Math.min(pX * numCells / size, numCells - 1);
         int cellY = (int) Math.min(pY * numCells / size, numCells - 1);
 
-        Cell<T> mainCell = cells.get(cellY).get(cellX);
-        List<Cell<T>> list = getNeighbours(mainCell);
-        List<Cell<T>> newList = new ArrayList<>();
-        for (Cell<T> cell:list) {
-            if(cell.intersectCircle(pX,pY,r))
-                newList.add(cell);
+        List<Cell<T>> list = new ArrayList<>(TraversalOffset.EIGHT_NEIGHBOURS.length + 1);
+        for (int[] offset : TraversalOffset.EIGHT_NEIGHBOURS) {
+            int i = cellY + offset[0];
+            int j = cellX + offset[1];
+            if ((i != cellY || j != cellX) && isValidCell(i, j) && cells.get(i).get(j).intersectCircle(pX, pY, r)) {
+                list.add(cells.get(i).get(j));
+            }
         }
-        newList.add(mainCell);
-        return newList;
+        list.add(cells.get(cellY).get(cellX));
+        return list;
     }
 
     public List<Cell<T>> getNeighbours(Cell<T> cell) {
@@ -109,6 +128,168 @@ public class SquareGrid<T extends Entity> {
         return neighbours;
     }
 
+    public List<SurfaceEntity<T>> kNearest(SurfaceEntity<T> particle, int k) {
+        return kNearest(particle, k, false);
+    }
+
+    /**
+     * The k particles closest to particle by distance between centers, closest first (ties by id).
+     * Cells are visited in square rings around the cell of the particle, and the search stops once
+     * the k-th candidate is closer than anything outside the rings visited so far. With periodic,
+     * distances are between the closest images and rings wrap around the borders.
+     */
+    public List<SurfaceEntity<T>> kNearest(SurfaceEntity<T> particle, int k, boolean periodic) {
+        double cellSize = (double) size / numCells;
+        double px = particle.getX();
+        double py = particle.getY();
+        int ci = (int) Math.min(py * numCells / size, numCells - 1);
+        int cj = (int) Math.min(px * numCells / size, numCells - 1);
+
+        // Offsets in [lowest, highest] reach every row (column) once, also when wrapping
+        int lowest = periodic ? -(numCells / 2) : -numCells;
+        int highest = periodic ? numCells - 1 - numCells / 2 : numCells;
+        int rings = periodic ? numCells / 2 : numCells;
+
+        PriorityQueue<Neighbour<T>> candidates = new PriorityQueue<>(Math.max(1, k), NEIGHBOUR_ORDER.reversed());
+        for (int ring = 0; ring <= rings && k > 0; ring++) {
+            for (int di = Math.max(lowest, -ring); di <= Math.min(highest, ring); di++) {
+                boolean edgeRow = Math.abs(di) == ring;
+                for (int dj = Math.max(lowest, -ring); dj <= Math.min(highest, ring); dj += edgeRow ? 1 : 2 * ring) {
+                    int i = ci + di;
+                    int j = cj + dj;
+                    if (periodic) {
+                        i = Math.floorMod(i, numCells);
+                        j = Math.floorMod(j, numCells);
+                    } else if (!isValidCell(i, j)) {
+                        continue;
+                    }
+                    for (SurfaceEntity<T> other : cells.get(i).get(j).getEntities()) {
+                        if (particle.equals(other)) {
+                            continue;
+                        }
+                        Neighbour<T> candidate = new Neighbour<>(other, distance(px, py, other, periodic));
+                        if (candidates.size() < k) {
+                            candidates.add(candidate);
+                        } else if (NEIGHBOUR_ORDER.compare(candidate, candidates.peek()) < 0) {
+                            candidates.poll();
+                            candidates.add(candidate);
+                        }
+                    }
+                }
+            }
+
+            if (candidates.size() == k && candidates.peek().distance < outsideDistance(px, py, ci, cj, ring, cellSize, periodic)) {
+                break;
+            }
+        }
+
+        List<Neighbour<T>> sorted = new ArrayList<>(candidates);
+        sorted.sort(NEIGHBOUR_ORDER);
+        List<SurfaceEntity<T>> nearest = new ArrayList<>(sorted.size());
+        for (Neighbour<T> neighbour : sorted) {
+            nearest.add(neighbour.entity);
+        }
+        return nearest;
+    }
+
+    /**
+     * {@link #kNearest(SurfaceEntity, int, boolean)} for every particle, split in ranges over threads workers.
+     * The result is in the same order as particles.
+     */
+    public List<List<SurfaceEntity<T>>> kNearest(List<SurfaceEntity<T>> particles, int k, boolean periodic, int threads) {
+        List<List<SurfaceEntity<T>>> results = new ArrayList<>(particles.size());
+        for (int p = 0; p < particles.size(); p++) {
+            results.add(null);
+        }
+
+        int workers = Math.max(1, threads);
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            pool.invoke(new KNearestTask(particles, k, periodic, results, 0, particles.size(), Math.max(1, particles.size() / (workers * 8))));
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    private class KNearestTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<SurfaceEntity<T>> particles;
+        private final int k;
+        private final boolean periodic;
+        private final List<List<SurfaceEntity<T>>> results;
+        private final int from, to, chunk;
+
+        KNearestTask(List<SurfaceEntity<T>> particles, int k, boolean periodic, List<List<SurfaceEntity<T>>> results, int from, int to, int chunk) {
+            this.particles = particles;
+            this.k = k;
+            this.periodic = periodic;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunk) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new KNearestTask(particles, k, periodic, results, from, middle, chunk),
+                        new KNearestTask(particles, k, periodic, results, middle, to, chunk));
+                return;
+            }
+            for (int p = from; p < to; p++) {
+                results.set(p, kNearest(particles.get(p), k, periodic));
+            }
+        }
+    }
+
+    private double distance(double px, double py, SurfaceEntity<T> other, boolean periodic) {
+        double dx = Math.abs(other.getX() - px);
+        double dy = Math.abs(other.getY() - py);
+        if (periodic) {
+            dx = Math.min(dx, size - dx);
+            dy = Math.min(dy, size - dy);
+        }
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // Lower bound for the distance to any particle outside the cells at most ring cells away
+    private double outsideDistance(double px, double py, int ci, int cj, int ring, double cellSize, boolean periodic) {
+        if (periodic && 2 * ring + 1 >= numCells) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double bound = Double.POSITIVE_INFINITY;
+        if (periodic || cj - ring > 0) bound = Math.min(bound, px - (cj - ring) * cellSize);
+        if (periodic || cj + ring < numCells - 1) bound = Math.min(bound, (cj + ring + 1) * cellSize - px);
+        if (periodic || ci - ring > 0) bound = Math.min(bound, py - (ci - ring) * cellSize);
+        if (periodic || ci + ring < numCells - 1) bound = Math.min(bound, (ci + ring + 1) * cellSize - py);
+        return Math.max(0, bound);
+    }
+
+    private static final Comparator<Neighbour<?>> NEIGHBOUR_ORDER = Comparator
+            .<Neighbour<?>>comparingDouble(n -> n.distance)
+            .thenComparing(n -> n.entity.getEntity().getId());
+
+    private static class Neighbour<T extends Entity> {
+        private final SurfaceEntity<T> entity;
+        private final double distance;
+
+        Neighbour(SurfaceEntity<T> entity, double distance) {
+            this.entity = entity;
+            this.distance = distance;
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumCells() {
+        return numCells;
+    }
+
     public List<List<Cell<T>>> getCells() {
         return cells;
     }
@@ -123,6 +304,6 @@ public class SquareGrid<T extends Entity> {
     }
 
     private boolean isValidCell(int i, int j) {
-        return i >= 0 && i < cells.size() && j >= 0 && j < cells.get(0).size();
+        return i >= 0 && i < numCells && j >= 0 && j < numCells;
     }
 }
@@ -1,16 +1,26 @@
 package ar.edu.itba.ss.models.methods;
 
+import ar.edu.itba.ss.data.NeighbourList;
 import ar.edu.itba.ss.data.ParticleDataframe;
 import ar.edu.itba.ss.models.Particle;
 import ar.edu.itba.ss.models.entity.SurfaceEntity;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class BruteForce {
 
+    private static final int TILE = 1024;
+    private static final int BLOCKS_PER_THREAD = 4;
+    // Squared prefilter bound, loose enough to keep every pair the exact test accepts
+    private static final double TOLERANCE = 1 + 1e-9;
+
     public static List<ParticleDataframe> calculate(List<SurfaceEntity<Particle>> particles, double rc){
 
         List<ParticleDataframe> results = new ArrayList<>();
@@ -30,4 +40,149 @@ public class BruteForce {
 
         return results;
     }
+
+    public static NeighbourList calculateNeighbourList(List<SurfaceEntity<Particle>> particles, double rc){
+        int n = particles.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] r = new double[n];
+        for (int p = 0; p < n; p++) {
+            x[p] = particles.get(p).getX();
+            y[p] = particles.get(p).getY();
+            r[p] = particles.get(p).getEntity().getRadius();
+        }
+
+        NeighbourList.Builder builder = new NeighbourList.Builder(NeighbourList.ids(particles), true);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                double distance = (Math.sqrt(dx * dx + dy * dy) - r[j]) - r[i];
+                if (distance <= rc) {
+                    builder.addPair(i, j, distance);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Same pairs as {@link #calculateNeighbourList(List, double)} evaluating the i < j pairs in
+     * TILE x TILE blocks that stay in cache. Pairs are compared with squared distances and only the
+     * ones inside the bound pay for the square root and the exact test. Block rows of the upper
+     * triangle run in parallel on threads workers.
+     */
+    public static NeighbourList calculateNeighbourList(List<SurfaceEntity<Particle>> particles, double rc, int threads){
+        int n = particles.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] r = new double[n];
+        for (int p = 0; p < n; p++) {
+            x[p] = particles.get(p).getX();
+            y[p] = particles.get(p).getY();
+            r[p] = particles.get(p).getEntity().getRadius();
+        }
+
+        int blocks = (n + TILE - 1) / TILE;
+        int workers = Math.max(1, threads);
+        NeighbourList.Builder builder = new NeighbourList.Builder(NeighbourList.ids(particles), true);
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            List<PairBuffer> buffers = pool.invoke(new BlockRowTask(x, y, r, rc, 0, blocks, Math.max(1, blocks / (workers * BLOCKS_PER_THREAD))));
+            for (PairBuffer buffer : buffers) {
+                for (int k = 0; k < buffer.size; k++) {
+                    builder.addPair(buffer.currents[k], buffer.neighbours[k], buffer.distances[k]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return builder.build();
+    }
+
+    private static void tile(double[] x, double[] y, double[] r, double rc, int fromI, int toI, int fromJ, int toJ, PairBuffer buffer){
+        for (int i = fromI; i < toI; i++) {
+            double xi = x[i];
+            double yi = y[i];
+            double limit = rc + r[i];
+
+            for (int j = Math.max(fromJ, i + 1); j < toJ; j++) {
+                double dx = x[j] - xi;
+                double dy = y[j] - yi;
+                double squared = dx * dx + dy * dy;
+                double bound = limit + r[j];
+                if (squared <= bound * bound * TOLERANCE) {
+                    double distance = (Math.sqrt(squared) - r[j]) - r[i];
+                    if (distance <= rc) {
+                        buffer.add(i, j, distance);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the block rows [fromBlock, toBlock) in halves until a task has at most taskBlocks rows,
+     * a block row pairs its particles with every block at or to the right of the diagonal.
+     */
+    private static class BlockRowTask extends RecursiveTask<List<PairBuffer>> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] x, y, r;
+        private final double rc;
+        private final int fromBlock, toBlock, taskBlocks;
+
+        BlockRowTask(double[] x, double[] y, double[] r, double rc, int fromBlock, int toBlock, int taskBlocks) {
+            this.x = x;
+            this.y = y;
+            this.r = r;
+            this.rc = rc;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.taskBlocks = taskBlocks;
+        }
+
+        @Override
+        protected List<PairBuffer> compute() {
+            if (toBlock - fromBlock > taskBlocks) {
+                int middle = (fromBlock + toBlock) / 2;
+                BlockRowTask top = new BlockRowTask(x, y, r, rc, fromBlock, middle, taskBlocks);
+                BlockRowTask bottom = new BlockRowTask(x, y, r, rc, middle, toBlock, taskBlocks);
+                bottom.fork();
+                List<PairBuffer> buffers = new ArrayList<>(top.compute());
+                buffers.addAll(bottom.join());
+                return buffers;
+            }
+
+            int n = x.length;
+            PairBuffer buffer = new PairBuffer();
+            for (int block = fromBlock; block < toBlock; block++) {
+                int fromI = block * TILE;
+                int toI = Math.min(n, fromI + TILE);
+                for (int fromJ = fromI; fromJ < n; fromJ += TILE) {
+                    tile(x, y, r, rc, fromI, toI, fromJ, Math.min(n, fromJ + TILE), buffer);
+                }
+            }
+            return Collections.singletonList(buffer);
+        }
+    }
+
+    private static class PairBuffer {
+        private int[] currents = new int[16];
+        private int[] neighbours = new int[16];
+        private double[] distances = new double[16];
+        private int size = 0;
+
+        void add(int current, int neighbour, double distance) {
+            if (size == distances.length) {
+                currents = Arrays.copyOf(currents, size * 2);
+                neighbours = Arrays.copyOf(neighbours, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            currents[size] = current;
+            neighbours[size] = neighbour;
+            distances[size] = distance;
+            size++;
+        }
+    }
 }
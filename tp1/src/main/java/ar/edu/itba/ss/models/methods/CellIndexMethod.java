@@ -1,5 +1,6 @@
 package ar.edu.itba.ss.models.methods;
 
+import ar.edu.itba.ss.data.NeighbourList;
 import ar.edu.itba.ss.data.ParticleDataframe;
 import ar.edu.itba.ss.models.Cell;
 import ar.edu.itba.ss.models.Particle;
@@ -7,13 +8,18 @@ import ar.edu.itba.ss.models.SquareGrid;
 import ar.edu.itba.ss.models.TraversalOffset;
 import ar.edu.itba.ss.models.entity.Entity;
 import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import ar.edu.itba.ss.profiling.PipelineProfile;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
 
 
 public class CellIndexMethod {
 
+    private static final int STRIPS_PER_THREAD = 4;
+
     public static Map<SurfaceEntity<Particle>, ParticleDataframe> calculate(int l, int m, double rc, final List<SurfaceEntity<Particle>> particles){
         SquareGrid<Particle> grid = new SquareGrid<>(l, m);
 
@@ -51,6 +57,188 @@ public class CellIndexMethod {
         return results;
     }
 
+    /**
+     * Number of cells per side for the given input, see {@link MSelector}.
+     */
+    public static int chooseM(int l, double rc, double maxR, final List<SurfaceEntity<Particle>> particles){
+        return MSelector.select(l, rc, maxR, particles);
+    }
+
+    public static Map<SurfaceEntity<Particle>, ParticleDataframe> calculate(int l, int m, double rc, final List<SurfaceEntity<Particle>> particles, int threads){
+        if (threads <= 1) {
+            return calculate(l, m, rc, particles);
+        }
+
+        SquareGrid<Particle> grid = new SquareGrid<>(l, m);
+
+        for (SurfaceEntity<Particle> particle:particles) {
+            grid.place(particle);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<NeighbourBuffer> buffers = pool.invoke(new RowStripTask(grid, rc, 0, m, Math.max(1, m / (threads * STRIPS_PER_THREAD))));
+            return mergeBuffers(particles, buffers);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static NeighbourList calculateNeighbourList(int l, int m, double rc, final List<SurfaceEntity<Particle>> particles, int threads){
+        return calculateNeighbourList(toGrid(l, m, particles), rc, particles, threads);
+    }
+
+    public static SquareGrid<Particle> toGrid(int l, int m, final List<SurfaceEntity<Particle>> particles){
+        SquareGrid<Particle> grid = new SquareGrid<>(l, m);
+
+        for (SurfaceEntity<Particle> particle:particles) {
+            grid.place(particle);
+        }
+
+        return grid;
+    }
+
+    /**
+     * Runs the method over a grid that already holds the given particles, e.g. the grid of a
+     * {@link ar.edu.itba.ss.models.SpatialIndex} that is reused between frames.
+     */
+    public static NeighbourList calculateNeighbourList(SquareGrid<Particle> grid, double rc, final List<SurfaceEntity<Particle>> particles, int threads){
+        return calculateNeighbourList(grid, rc, particles, threads, new PipelineProfile());
+    }
+
+    /**
+     * Same as {@link #calculateNeighbourList(SquareGrid, double, List, int)}, the traversal of the cells and the
+     * build of the list are recorded as the "traversal" and "build" phases of the profile.
+     */
+    public static NeighbourList calculateNeighbourList(SquareGrid<Particle> grid, double rc, final List<SurfaceEntity<Particle>> particles, int threads, PipelineProfile profile){
+        int m = grid.getNumCells();
+        List<NeighbourBuffer> buffers;
+        try (PipelineProfile.Phase phase = profile.start("traversal")) {
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+            try {
+                buffers = pool.invoke(new RowStripTask(grid, rc, 0, m, Math.max(1, m / (Math.max(1, threads) * STRIPS_PER_THREAD))));
+            } finally {
+                pool.shutdown();
+            }
+            SearchCounters counters = new SearchCounters();
+            for (NeighbourBuffer buffer : buffers) {
+                counters.add(buffer.evaluations, buffer.size());
+                counters.addCellVisits(buffer.cellVisits);
+            }
+            phase.particles(particles.size()).counters(counters);
+        }
+
+        try (PipelineProfile.Phase phase = profile.start("build")) {
+            Map<SurfaceEntity<Particle>, Integer> indexes = new IdentityHashMap<>();
+            for (int p = 0; p < particles.size(); p++) {
+                indexes.put(particles.get(p), p);
+            }
+
+            NeighbourList.Builder builder = new NeighbourList.Builder(NeighbourList.ids(particles), true);
+            for (NeighbourBuffer buffer : buffers) {
+                for (int k = 0; k < buffer.size(); k++) {
+                    builder.addPair(indexes.get(buffer.currents.get(k)), indexes.get(buffer.neighbours.get(k)), buffer.distances[k]);
+                }
+            }
+            NeighbourList neighbourList = builder.build();
+            // Pairs inside a cell are found from both particles, the list keeps them once
+            phase.particles(particles.size()).acceptedPairs(neighbourList.getPairCount());
+            return neighbourList;
+        }
+    }
+
+    private static Map<SurfaceEntity<Particle>, ParticleDataframe> mergeBuffers(List<SurfaceEntity<Particle>> particles, List<NeighbourBuffer> buffers){
+        Map<SurfaceEntity<Particle>, ParticleDataframe> results = new LinkedHashMap<>();
+        for (SurfaceEntity<Particle> particle : particles) {
+            results.put(particle, new ParticleDataframe(particle));
+        }
+
+        for (NeighbourBuffer buffer : buffers) {
+            for (int k = 0; k < buffer.size(); k++) {
+                SurfaceEntity<Particle> current = buffer.currents.get(k);
+                SurfaceEntity<Particle> neighbour = buffer.neighbours.get(k);
+                results.get(current).addNeighbour(neighbour, buffer.distances[k]);
+                results.get(neighbour).addNeighbour(current, buffer.distances[k]);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Splits the rows [fromRow, toRow) of the grid in halves until a strip has at most stripRows rows.
+     * Every strip writes the pairs it finds into its own buffer, the buffers are returned in row order.
+     */
+    private static class RowStripTask extends RecursiveTask<List<NeighbourBuffer>> {
+        private static final long serialVersionUID = 1L;
+
+        private final SquareGrid<Particle> grid;
+        private final double rc;
+        private final int fromRow, toRow, stripRows;
+
+        RowStripTask(SquareGrid<Particle> grid, double rc, int fromRow, int toRow, int stripRows) {
+            this.grid = grid;
+            this.rc = rc;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.stripRows = stripRows;
+        }
+
+        @Override
+        protected List<NeighbourBuffer> compute() {
+            if (toRow - fromRow > stripRows) {
+                int middle = (fromRow + toRow) / 2;
+                RowStripTask top = new RowStripTask(grid, rc, fromRow, middle, stripRows);
+                RowStripTask bottom = new RowStripTask(grid, rc, middle, toRow, stripRows);
+                bottom.fork();
+                List<NeighbourBuffer> buffers = new ArrayList<>(top.compute());
+                buffers.addAll(bottom.join());
+                return buffers;
+            }
+
+            NeighbourBuffer buffer = new NeighbourBuffer();
+            for (int i = fromRow; i < toRow; i++) {
+                for (Cell<Particle> cell : grid.getCells().get(i)) {
+                    List<Cell<Particle>> neighbourCells = grid.getPeriodicNeighbours(cell, TraversalOffset.L_NEIGHBOURS);
+                    for (SurfaceEntity<Particle> currentParticle : cell.getEntities()) {
+                        buffer.cellVisits += neighbourCells.size();
+                        for (Cell<Particle> c : neighbourCells) {
+                            buffer.evaluations += c.getEntities().size();
+                            for (SurfaceEntity<Particle> neighbourCandidate : c.getEntities()) {
+                                double distance = (neighbourCandidate.distanceTo(currentParticle) - neighbourCandidate.getEntity().getRadius()) - currentParticle.getEntity().getRadius();
+                                if (distance <= rc && !currentParticle.equals(neighbourCandidate)) {
+                                    buffer.add(currentParticle, neighbourCandidate, distance);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            return Collections.singletonList(buffer);
+        }
+    }
+
+    private static class NeighbourBuffer {
+        private final List<SurfaceEntity<Particle>> currents = new ArrayList<>();
+        private final List<SurfaceEntity<Particle>> neighbours = new ArrayList<>();
+        private double[] distances = new double[16];
+        private long evaluations = 0;
+        private long cellVisits = 0;
+
+        void add(SurfaceEntity<Particle> current, SurfaceEntity<Particle> neighbour, double distance) {
+            if (currents.size() == distances.length) {
+                distances = Arrays.copyOf(distances, distances.length * 2);
+            }
+            distances[currents.size()] = distance;
+            currents.add(current);
+            neighbours.add(neighbour);
+        }
+
+        int size() {
+            return currents.size();
+        }
+    }
+
     private static double calculatePeriodicDistance(SurfaceEntity<Particle> p1, SurfaceEntity<Particle> p2, SquareGrid<Particle> grid) {
         double dx = Math.abs(p1.getX() - p2.getX());
         double dy = Math.abs(p1.getY() - p2.getY());
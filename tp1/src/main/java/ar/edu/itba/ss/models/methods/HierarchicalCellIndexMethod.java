@@ -0,0 +1,97 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.data.ParticleDataframe;
+import ar.edu.itba.ss.models.HierarchicalGrid;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.PrimitiveGrid;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cell Index Method over a {@link HierarchicalGrid}. Pairs inside a level run the primitive CIM on
+ * that level's grid. Pairs across levels are found from the particle of the finer level, which scans
+ * the cells of every coarser level around it up to rc + its radius + the largest radius of that level.
+ * Distances are measured as in the single level CIM, so both give the same neighbours.
+ */
+public class HierarchicalCellIndexMethod {
+
+    public static Map<SurfaceEntity<Particle>, ParticleDataframe> calculate(int l, double rc, final List<SurfaceEntity<Particle>> particles) {
+        return calculateNeighbourList(l, rc, particles).toDataframes(particles);
+    }
+
+    public static NeighbourList calculateNeighbourList(int l, double rc, final List<SurfaceEntity<Particle>> particles) {
+        NeighbourList.Builder builder = new NeighbourList.Builder(NeighbourList.ids(particles), true);
+        cellIndexMethod(toGrid(l, rc, particles), rc, builder::addPair);
+        return builder.build();
+    }
+
+    public static HierarchicalGrid toGrid(int l, double rc, final List<SurfaceEntity<Particle>> particles) {
+        int n = particles.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] r = new double[n];
+        for (int p = 0; p < n; p++) {
+            x[p] = particles.get(p).getX();
+            y[p] = particles.get(p).getY();
+            r[p] = particles.get(p).getEntity().getRadius();
+        }
+        return new HierarchicalGrid(l, rc, x, y, r);
+    }
+
+    /**
+     * Visits every pair once with the original indexes of both particles.
+     */
+    public static void cellIndexMethod(HierarchicalGrid grid, double rc, PairVisitor visitor) {
+        for (int level = 0; level < grid.getLevels(); level++) {
+            int current = level;
+            PrimitiveCellIndexMethod.cellIndexMethod(grid.getGrid(level), rc,
+                    (a, b, distance) -> visitor.visit(grid.getMember(current, a), grid.getMember(current, b), distance));
+        }
+
+        for (int fine = 0; fine < grid.getLevels(); fine++) {
+            PrimitiveGrid fineGrid = grid.getGrid(fine);
+            for (int p = 0; p < fineGrid.getX().length; p++) {
+                for (int coarse = fine + 1; coarse < grid.getLevels(); coarse++) {
+                    crossLevel(grid, rc, fine, p, coarse, visitor);
+                }
+            }
+        }
+    }
+
+    private static void crossLevel(HierarchicalGrid grid, double rc, int fine, int p, int coarse, PairVisitor visitor) {
+        PrimitiveGrid fineGrid = grid.getGrid(fine);
+        PrimitiveGrid coarseGrid = grid.getGrid(coarse);
+        double x = fineGrid.getX()[p];
+        double y = fineGrid.getY()[p];
+        double r = fineGrid.getR()[p];
+        double reach = rc + r + grid.getMaxR(coarse);
+
+        int m = coarseGrid.getNumCells();
+        double cellsPerUnit = (double) m / grid.getSize();
+        int fromJ = Math.max(0, (int) Math.floor((x - reach) * cellsPerUnit));
+        int toJ = Math.min(m - 1, (int) Math.floor((x + reach) * cellsPerUnit));
+        int fromI = Math.max(0, (int) Math.floor((y - reach) * cellsPerUnit));
+        int toI = Math.min(m - 1, (int) Math.floor((y + reach) * cellsPerUnit));
+
+        double[] cx = coarseGrid.getX();
+        double[] cy = coarseGrid.getY();
+        double[] cr = coarseGrid.getR();
+        for (int i = fromI; i <= toI; i++) {
+            for (int j = fromJ; j <= toJ; j++) {
+                int cell = coarseGrid.cellIndex(i, j);
+                for (int b = coarseGrid.getCellStart(cell); b < coarseGrid.getCellEnd(cell); b++) {
+                    int candidate = coarseGrid.getParticle(b);
+                    double dx = cx[candidate] - x;
+                    double dy = cy[candidate] - y;
+                    double distance = (Math.sqrt(dx * dx + dy * dy) - cr[candidate]) - r;
+                    if (distance <= rc) {
+                        visitor.visit(grid.getMember(fine, p), grid.getMember(coarse, candidate), distance);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.data.ParticleDataframe;
+import ar.edu.itba.ss.models.KdTree;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Neighbour search over a {@link KdTree}. Its cost does not depend on how uniform the density is,
+ * so it is meant for clustered inputs where most cells of the CIM grid are empty and a few hold
+ * most of the particles.
+ */
+public class KdTreeMethod {
+
+    public static Map<SurfaceEntity<Particle>, ParticleDataframe> calculate(int l, double rc, final List<SurfaceEntity<Particle>> particles) {
+        return calculateNeighbourList(l, rc, particles, false).toDataframes(particles);
+    }
+
+    public static Map<SurfaceEntity<Particle>, ParticleDataframe> calculate(int l, double rc, final List<SurfaceEntity<Particle>> particles, boolean periodic) {
+        return calculateNeighbourList(l, rc, particles, periodic).toDataframes(particles);
+    }
+
+    /**
+     * With periodic the distance between two particles is the one between their closest images in
+     * the L x L box, which needs rc + 2 * maxR <= L / 2 so that a pair is found through one image only.
+     */
+    public static NeighbourList calculateNeighbourList(int l, double rc, final List<SurfaceEntity<Particle>> particles, boolean periodic) {
+        int n = particles.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] r = new double[n];
+        double maxR = 0;
+        for (int p = 0; p < n; p++) {
+            x[p] = particles.get(p).getX();
+            y[p] = particles.get(p).getY();
+            r[p] = particles.get(p).getEntity().getRadius();
+            maxR = Math.max(maxR, r[p]);
+        }
+        if (periodic && rc + 2 * maxR > l / 2.0) {
+            throw new IllegalArgumentException("Con condiciones periódicas rc + 2 * r no puede superar L / 2");
+        }
+
+        KdTree tree = new KdTree(x, y, r);
+        NeighbourList.Builder builder = new NeighbourList.Builder(NeighbourList.ids(particles), true);
+        PairVisitor visitor = builder::addPair;
+        for (int i = 0; i < n; i++) {
+            tree.forEachNeighbour(i, x[i], y[i], r[i], rc, visitor);
+            if (!periodic) {
+                continue;
+            }
+
+            double reach = rc + r[i] + maxR;
+            int shiftsX = x[i] - reach < 0 ? 1 : (x[i] + reach > l ? -1 : 0);
+            int shiftsY = y[i] - reach < 0 ? 1 : (y[i] + reach > l ? -1 : 0);
+            if (shiftsX != 0) {
+                tree.forEachNeighbour(i, x[i] + shiftsX * l, y[i], r[i], rc, visitor);
+            }
+            if (shiftsY != 0) {
+                tree.forEachNeighbour(i, x[i], y[i] + shiftsY * l, r[i], rc, visitor);
+            }
+            if (shiftsX != 0 && shiftsY != 0) {
+                tree.forEachNeighbour(i, x[i] + shiftsX * l, y[i] + shiftsY * l, r[i], rc, visitor);
+            }
+        }
+        return builder.build();
+    }
+}
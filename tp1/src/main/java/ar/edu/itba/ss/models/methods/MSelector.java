@@ -0,0 +1,190 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Chooses the number of cells per side for the Cell Index Method.
+ * The cost of a run is modelled, in distance evaluations, as cellCost * M^2 for visiting the cells plus
+ * 4.5 * N * (N / M^2) for the candidates of the L stencil. cellCost is calibrated by timing CIM on a
+ * sample of the input with the same density, and the chosen M is cached per (N, L, rc, maxR) in
+ * output/m_cache.properties. maxR is part of the key because it changes both maxM and the calibration window.
+ */
+public class MSelector {
+
+    private static final String CACHE_FILE = "output/m_cache.properties";
+    private static final int SAMPLE_SIZE = 2000;
+    private static final int REPETITIONS = 3;
+    private static final int CALIBRATION_CELLS = 6;
+    private static final double STENCIL_CELLS = 4.5;
+    // Used when the calibration gives a non physical fit
+    private static final double DEFAULT_CELL_COST = 30.0;
+
+    public static int select(int l, double rc, double maxR, List<SurfaceEntity<Particle>> particles) {
+        return select(l, rc, maxR, particles, new File(CACHE_FILE));
+    }
+
+    public static int select(int l, double rc, double maxR, List<SurfaceEntity<Particle>> particles, File cacheFile) {
+        int maxM = maxM(l, rc, maxR);
+        if (maxM == 1) {
+            return maxM;
+        }
+
+        String key = cacheKey(particles.size(), l, rc, maxR);
+        Properties cache = loadCache(cacheFile);
+        String cached = cache.getProperty(key);
+        if (cached != null) {
+            int m = Integer.parseInt(cached);
+            if (m >= 1 && m <= maxM) {
+                return m;
+            }
+        }
+
+        int m = best(particles.size(), calibrate(l, rc, maxR, particles), maxM);
+        cache.setProperty(key, String.valueOf(m));
+        saveCache(cache, cacheFile);
+        return m;
+    }
+
+    static String cacheKey(int n, int l, double rc, double maxR) {
+        return String.format(Locale.ROOT, "%d,%d,%s,%s", n, l, rc, maxR);
+    }
+
+    public static int maxM(int l, double rc, double maxR) {
+        return Math.max(1, (int) Math.floor(l / (rc + 2 * maxR)));
+    }
+
+    public static double cost(int n, int m, double cellCost) {
+        double cells = (double) m * m;
+        return cellCost * cells + STENCIL_CELLS * n * (n / cells) + n;
+    }
+
+    public static int best(int n, double cellCost, int maxM) {
+        int best = maxM;
+        for (int m = 1; m <= maxM; m++) {
+            if (cost(n, m, cellCost) < cost(n, best, cellCost)) {
+                best = m;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Times CIM with three values of M on a square window of the input that holds about SAMPLE_SIZE particles
+     * (and at least CALIBRATION_CELLS cells per side), and solves t = fixed + timePerCell * M^2 + timePerDistance * work
+     * for the cost of a cell relative to a distance evaluation.
+     */
+    public static double calibrate(int l, double rc, double maxR, List<SurfaceEntity<Particle>> particles) {
+        double density = particles.size() / ((double) l * l);
+        int window = l;
+        if (particles.size() > SAMPLE_SIZE) {
+            int minWindow = (int) Math.ceil(CALIBRATION_CELLS * (rc + 2 * maxR));
+            window = Math.min(l, Math.max(minWindow, (int) Math.ceil(Math.sqrt(SAMPLE_SIZE / density))));
+        }
+
+        List<SurfaceEntity<Particle>> sample = new ArrayList<>();
+        for (SurfaceEntity<Particle> particle : particles) {
+            if (particle.getX() < window && particle.getY() < window) {
+                sample.add(particle);
+            }
+        }
+
+        int maxM = maxM(window, rc, maxR);
+        int[] ms = {maxM, Math.max(1, 2 * maxM / 3), Math.max(1, maxM / 3)};
+        if (ms[0] == ms[1] || ms[1] == ms[2] || sample.isEmpty()) {
+            return DEFAULT_CELL_COST;
+        }
+
+        // Warm up, the first run pays for class loading and the interpreter
+        time(window, maxM, rc, sample);
+
+        double[][] system = new double[3][4];
+        for (int k = 0; k < 3; k++) {
+            system[k][0] = 1;
+            system[k][1] = (double) ms[k] * ms[k];
+            system[k][2] = cost(sample.size(), ms[k], 0);
+            system[k][3] = time(window, ms[k], rc, sample);
+        }
+        double[] solution = solve(system);
+        double timePerCell = solution[1];
+        double timePerDistance = solution[2];
+        if (!(timePerCell > 0) || !(timePerDistance > 0)) {
+            return DEFAULT_CELL_COST;
+        }
+        return timePerCell / timePerDistance;
+    }
+
+    /**
+     * Gaussian elimination with partial pivoting over an augmented 3x4 matrix.
+     */
+    private static double[] solve(double[][] system) {
+        int size = system.length;
+        for (int col = 0; col < size; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < size; row++) {
+                if (Math.abs(system[row][col]) > Math.abs(system[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            double[] aux = system[col];
+            system[col] = system[pivot];
+            system[pivot] = aux;
+
+            for (int row = col + 1; row < size; row++) {
+                double factor = system[row][col] / system[col][col];
+                for (int k = col; k <= size; k++) {
+                    system[row][k] -= factor * system[col][k];
+                }
+            }
+        }
+
+        double[] solution = new double[size];
+        for (int row = size - 1; row >= 0; row--) {
+            double sum = system[row][size];
+            for (int k = row + 1; k < size; k++) {
+                sum -= system[row][k] * solution[k];
+            }
+            solution[row] = sum / system[row][row];
+        }
+        return solution;
+    }
+
+    private static double time(int l, int m, double rc, List<SurfaceEntity<Particle>> particles) {
+        long minDuration = Long.MAX_VALUE;
+        for (int i = 0; i < REPETITIONS; i++) {
+            long start = System.nanoTime();
+            CellIndexMethod.calculateNeighbourList(l, m, rc, particles, 1);
+            minDuration = Math.min(minDuration, System.nanoTime() - start);
+        }
+        return minDuration;
+    }
+
+    private static Properties loadCache(File file) {
+        Properties cache = new Properties();
+        if (file.exists()) {
+            try (Reader reader = new FileReader(file)) {
+                cache.load(reader);
+            } catch (IOException e) {
+                System.err.println("No se pudo leer la cache de M " + e.getMessage());
+            }
+        }
+        return cache;
+    }
+
+    private static void saveCache(Properties cache, File file) {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try (Writer writer = new FileWriter(file)) {
+            cache.store(writer, "M chosen per N,L,rc,maxR");
+        } catch (IOException e) {
+            System.err.println("No se pudo guardar la cache de M " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ar.edu.itba.ss.models.methods;
+
+/**
+ * Coordination number of every particle, mean neighbour distance and pair correlation g(r)
+ * accumulated pair by pair, so no neighbour list is kept. Memory is O(N + bins) per accumulator.
+ * g(r) uses center distances up to rMax; every pair with center distance below rc + 2 (smallest
+ * radius) is visited by the search, so rMax should not go past it.
+ */
+public class NeighbourStatistics implements PairAccumulator<NeighbourStatistics> {
+
+    private final double[] radii;
+    private final int size;
+    private final double rMax;
+    private final double binWidth;
+    private final int[] coordination;
+    private final long[] pairCorrelation;
+    private long pairs = 0;
+    private double distanceSum = 0;
+
+    public NeighbourStatistics(double[] radii, int size, double rMax, int bins) {
+        this.radii = radii;
+        this.size = size;
+        this.rMax = rMax;
+        this.binWidth = rMax / bins;
+        this.coordination = new int[radii.length];
+        this.pairCorrelation = new long[bins];
+    }
+
+    @Override
+    public void visit(int current, int neighbour, double distance) {
+        coordination[current]++;
+        coordination[neighbour]++;
+        pairs++;
+        distanceSum += distance;
+
+        double centerDistance = distance + radii[current] + radii[neighbour];
+        if (centerDistance < rMax) {
+            pairCorrelation[(int) (centerDistance / binWidth)]++;
+        }
+    }
+
+    @Override
+    public void merge(NeighbourStatistics other) {
+        for (int p = 0; p < coordination.length; p++) {
+            coordination[p] += other.coordination[p];
+        }
+        for (int b = 0; b < pairCorrelation.length; b++) {
+            pairCorrelation[b] += other.pairCorrelation[b];
+        }
+        pairs += other.pairs;
+        distanceSum += other.distanceSum;
+    }
+
+    public long getPairs() {
+        return pairs;
+    }
+
+    public double getMeanDistance() {
+        return pairs == 0 ? 0 : distanceSum / pairs;
+    }
+
+    public double getMeanCoordination() {
+        return coordination.length == 0 ? 0 : 2.0 * pairs / coordination.length;
+    }
+
+    /**
+     * Position k holds how many particles have exactly k neighbours.
+     */
+    public long[] getCoordinationHistogram() {
+        int max = 0;
+        for (int count : coordination) {
+            max = Math.max(max, count);
+        }
+        long[] histogram = new long[max + 1];
+        for (int count : coordination) {
+            histogram[count]++;
+        }
+        return histogram;
+    }
+
+    public double getBinWidth() {
+        return binWidth;
+    }
+
+    /**
+     * g(r) for the bin [b * binWidth, (b + 1) * binWidth), normalised by the ideal gas of the same
+     * density in the L x L box. Near the borders fewer neighbours fit, so it is slightly below 1 there.
+     */
+    public double[] getPairCorrelation() {
+        int n = coordination.length;
+        double density = (double) n / ((double) size * size);
+        double[] g = new double[pairCorrelation.length];
+        for (int b = 0; b < g.length; b++) {
+            double inner = b * binWidth;
+            double outer = (b + 1) * binWidth;
+            double expected = n * density * Math.PI * (outer * outer - inner * inner);
+            g[b] = expected == 0 ? 0 : 2 * pairCorrelation[b] / expected;
+        }
+        return g;
+    }
+}
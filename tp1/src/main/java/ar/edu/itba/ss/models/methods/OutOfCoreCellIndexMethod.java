@@ -0,0 +1,187 @@
+package ar.edu.itba.ss.models.methods;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cell Index Method for inputs that do not fit in the heap. The particles are read twice from a
+ * {@link ParticleSource}: once to count them per grid row and once to write them, grouped by row, into
+ * a memory mapped temporary file. Then the rows are processed in bands: only the particles of the
+ * band and of the row below it (the L stencil reaches one row down) are loaded, and pairs go straight
+ * to the visitor. The heap holds one band plus O(M) counters.
+ */
+public class OutOfCoreCellIndexMethod {
+
+    // index, x, y, r
+    private static final int RECORD_BYTES = Integer.BYTES + 3 * Double.BYTES;
+    // Records per mapping, so that no record crosses two mappings
+    private static final int WINDOW_BITS = 25;
+    private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+    // Resident bytes per particle of a band: the record plus the per-cell arrays
+    private static final int BAND_BYTES_PER_PARTICLE = 64;
+
+    /**
+     * Particles in input order, reading has to give the same particles every time.
+     */
+    @FunctionalInterface
+    public interface ParticleSource {
+        void read(ParticleSink sink) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface ParticleSink {
+        void accept(int index, double x, double y, double r);
+    }
+
+    /**
+     * Rows per band so that a band uses about an eighth of the maximum heap.
+     */
+    public static int bandRows(long n, int m) {
+        long budget = Runtime.getRuntime().maxMemory() / 8 / BAND_BYTES_PER_PARTICLE;
+        double perRow = Math.max(1.0, (double) n / m);
+        return (int) Math.max(1, Math.min(m, budget / perRow));
+    }
+
+    /**
+     * Visits every pair with the index given by the source, with the same distance as
+     * {@link PrimitiveCellIndexMethod}. Bands of bandRows rows are processed top to bottom.
+     */
+    public static void calculate(int l, int m, double rc, ParticleSource source, int bandRows, PairVisitor visitor) throws IOException {
+        long[] rowStart = new long[m + 1];
+        source.read((index, x, y, r) -> rowStart[row(y, l, m) + 1]++);
+        for (int row = 0; row < m; row++) {
+            rowStart[row + 1] += rowStart[row];
+        }
+        long n = rowStart[m];
+
+        Path file = Files.createTempFile("cim-rows", ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+            List<MappedByteBuffer> windows = new ArrayList<>();
+            for (long first = 0; first < n; first += 1L << WINDOW_BITS) {
+                long records = Math.min(1L << WINDOW_BITS, n - first);
+                windows.add(channel.map(FileChannel.MapMode.READ_WRITE, first * RECORD_BYTES, records * RECORD_BYTES));
+            }
+
+            long[] cursor = new long[m];
+            System.arraycopy(rowStart, 0, cursor, 0, m);
+            source.read((index, x, y, r) -> {
+                long record = cursor[row(y, l, m)]++;
+                MappedByteBuffer window = windows.get((int) (record >>> WINDOW_BITS));
+                int offset = (int) (record & WINDOW_MASK) * RECORD_BYTES;
+                window.putInt(offset, index);
+                window.putDouble(offset + Integer.BYTES, x);
+                window.putDouble(offset + Integer.BYTES + Double.BYTES, y);
+                window.putDouble(offset + Integer.BYTES + 2 * Double.BYTES, r);
+            });
+
+            int rows = Math.max(1, bandRows);
+            for (int fromRow = 0; fromRow < m; fromRow += rows) {
+                int toRow = Math.min(m, fromRow + rows);
+                Band band = new Band(windows, rowStart, fromRow, Math.min(m, toRow + 1), l, m);
+                band.traverse(fromRow, toRow, rc, visitor);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int row(double y, int l, int m) {
+        return (int) Math.min(y * m / l, m - 1);
+    }
+
+    /**
+     * Rows [fromRow, toRow) loaded from the file, with the particles of every row sorted by column.
+     */
+    private static class Band {
+        private final int m, fromRow;
+        private final int[] index;
+        private final double[] x, y, r;
+        private final int[] cellStart;
+
+        Band(List<MappedByteBuffer> windows, long[] rowStart, int fromRow, int toRow, int l, int m) {
+            this.m = m;
+            this.fromRow = fromRow;
+            long first = rowStart[fromRow];
+            int count = Math.toIntExact(rowStart[toRow] - first);
+            int cells = (toRow - fromRow) * m;
+
+            int[] rawIndex = new int[count];
+            double[] rawX = new double[count], rawY = new double[count], rawR = new double[count];
+            int[] cell = new int[count];
+            this.cellStart = new int[cells + 1];
+            for (int p = 0; p < count; p++) {
+                long record = first + p;
+                MappedByteBuffer window = windows.get((int) (record >>> WINDOW_BITS));
+                int offset = (int) (record & WINDOW_MASK) * RECORD_BYTES;
+                rawIndex[p] = window.getInt(offset);
+                rawX[p] = window.getDouble(offset + Integer.BYTES);
+                rawY[p] = window.getDouble(offset + Integer.BYTES + Double.BYTES);
+                rawR[p] = window.getDouble(offset + Integer.BYTES + 2 * Double.BYTES);
+                int column = (int) Math.min(rawX[p] * m / l, m - 1);
+                cell[p] = (row(rawY[p], l, m) - fromRow) * m + column;
+                cellStart[cell[p] + 1]++;
+            }
+            for (int c = 0; c < cells; c++) {
+                cellStart[c + 1] += cellStart[c];
+            }
+
+            this.index = new int[count];
+            this.x = new double[count];
+            this.y = new double[count];
+            this.r = new double[count];
+            int[] next = new int[cells];
+            System.arraycopy(cellStart, 0, next, 0, cells);
+            for (int p = 0; p < count; p++) {
+                int position = next[cell[p]]++;
+                index[position] = rawIndex[p];
+                x[position] = rawX[p];
+                y[position] = rawY[p];
+                r[position] = rawR[p];
+            }
+        }
+
+        // Same L stencil as PrimitiveCellIndexMethod, rows outside the band are only reached as neighbours
+        void traverse(int firstRow, int lastRow, double rc, PairVisitor visitor) {
+            int rows = (cellStart.length - 1) / m;
+            for (int i = firstRow - fromRow; i < lastRow - fromRow; i++) {
+                for (int j = 0; j < m; j++) {
+                    int cell = i * m + j;
+                    for (int a = cellStart[cell]; a < cellStart[cell + 1]; a++) {
+                        for (int b = a + 1; b < cellStart[cell + 1]; b++) {
+                            checkPair(a, b, rc, visitor);
+                        }
+                        for (int[] offset : NEIGHBOURS) {
+                            int neighbourI = i + offset[0];
+                            int neighbourJ = j + offset[1];
+                            if (neighbourI >= rows || neighbourJ < 0 || neighbourJ >= m) {
+                                continue;
+                            }
+                            int neighbourCell = neighbourI * m + neighbourJ;
+                            for (int b = cellStart[neighbourCell]; b < cellStart[neighbourCell + 1]; b++) {
+                                checkPair(a, b, rc, visitor);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private void checkPair(int current, int candidate, double rc, PairVisitor visitor) {
+            double dx = x[candidate] - x[current];
+            double dy = y[candidate] - y[current];
+            double distance = (Math.sqrt(dx * dx + dy * dy) - r[candidate]) - r[current];
+            if (distance <= rc) {
+                visitor.visit(index[current], index[candidate], distance);
+            }
+        }
+    }
+
+    // L_NEIGHBOURS without {0, 0}, the pairs inside a cell are visited apart
+    private static final int[][] NEIGHBOURS = {{0, 1}, {1, 1}, {1, 0}, {1, -1}};
+}
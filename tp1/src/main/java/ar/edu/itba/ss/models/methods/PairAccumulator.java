@@ -0,0 +1,9 @@
+package ar.edu.itba.ss.models.methods;
+
+/**
+ * A {@link PairVisitor} that reduces the pairs into a result instead of storing them. Parallel
+ * traversals give every task its own accumulator and merge them as the tasks finish.
+ */
+public interface PairAccumulator<A extends PairAccumulator<A>> extends PairVisitor {
+    void merge(A other);
+}
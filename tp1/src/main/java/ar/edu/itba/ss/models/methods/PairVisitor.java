@@ -0,0 +1,10 @@
+package ar.edu.itba.ss.models.methods;
+
+/**
+ * Receives every neighbour pair found by a traversal, each unordered pair at least once.
+ * Particles are referred to by their index in the simulation list.
+ */
+@FunctionalInterface
+public interface PairVisitor {
+    void visit(int current, int neighbour, double distance);
+}
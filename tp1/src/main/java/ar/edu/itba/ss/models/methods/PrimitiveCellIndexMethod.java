@@ -0,0 +1,350 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.data.ParticleDataframe;
+import ar.edu.itba.ss.models.PackedGrid;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.PrimitiveGrid;
+import ar.edu.itba.ss.models.TraversalOffset;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Cell Index Method over a {@link PrimitiveGrid}: no per-cell objects are created, the particles are
+ * binned into flat arrays and each pair of neighbouring cells is visited once with the L shaped stencil.
+ */
+public class PrimitiveCellIndexMethod {
+
+    private static final int STRIPS_PER_THREAD = 4;
+
+    public static Map<SurfaceEntity<Particle>, ParticleDataframe> calculate(int l, int m, double rc, final List<SurfaceEntity<Particle>> particles){
+        int n = particles.size();
+        ParticleDataframe[] dataframes = new ParticleDataframe[n];
+        for (int p = 0; p < n; p++) {
+            dataframes[p] = new ParticleDataframe(particles.get(p));
+        }
+
+        cellIndexMethod(toGrid(l, m, particles), rc, (current, neighbour, distance) -> {
+            dataframes[current].addNeighbour(particles.get(neighbour), distance);
+            dataframes[neighbour].addNeighbour(particles.get(current), distance);
+        });
+
+        Map<SurfaceEntity<Particle>, ParticleDataframe> results = new LinkedHashMap<>();
+        for (int p = 0; p < n; p++) {
+            results.put(particles.get(p), dataframes[p]);
+        }
+        return results;
+    }
+
+    public static NeighbourList calculateNeighbourList(int l, int m, double rc, final List<SurfaceEntity<Particle>> particles){
+        return calculateNeighbourList(l, m, rc, particles, false);
+    }
+
+    /**
+     * @param mortonOrder sort the particles by the Z-order code of their cell before the traversal,
+     *                    the results keep the original indexes.
+     */
+    public static NeighbourList calculateNeighbourList(int l, int m, double rc, final List<SurfaceEntity<Particle>> particles, boolean mortonOrder){
+        NeighbourList.Builder builder = new NeighbourList.Builder(NeighbourList.ids(particles), true);
+        cellIndexMethod(toGrid(l, m, particles, mortonOrder), rc, builder::addPair);
+        return builder.build();
+    }
+
+    public static PrimitiveGrid toGrid(int l, int m, final List<SurfaceEntity<Particle>> particles){
+        return toGrid(l, m, particles, false);
+    }
+
+    public static PrimitiveGrid toGrid(int l, int m, final List<SurfaceEntity<Particle>> particles, boolean mortonOrder){
+        int n = particles.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] r = new double[n];
+
+        for (int p = 0; p < n; p++) {
+            SurfaceEntity<Particle> particle = particles.get(p);
+            x[p] = particle.getX();
+            y[p] = particle.getY();
+            r[p] = particle.getEntity().getRadius();
+        }
+
+        return mortonOrder ? PrimitiveGrid.mortonOrdered(l, m, x, y, r) : new PrimitiveGrid(l, m, x, y, r);
+    }
+
+    /**
+     * Packed mode: the search runs over the floats of a {@link PackedGrid}, only the pairs whose float
+     * distance is within {@link PackedGrid#errorMargin} of rc are computed again in double. The pairs are
+     * the same as with the double grid, distances of the other pairs have float precision.
+     */
+    public static NeighbourList calculatePackedNeighbourList(int l, int m, double rc, final List<SurfaceEntity<Particle>> particles, SearchCounters counters){
+        NeighbourList.Builder builder = new NeighbourList.Builder(NeighbourList.ids(particles), true);
+        cellIndexMethod(toPackedGrid(l, m, particles), rc, builder::addPair, counters);
+        return builder.build();
+    }
+
+    public static PackedGrid toPackedGrid(int l, int m, final List<SurfaceEntity<Particle>> particles){
+        int n = particles.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] r = new double[n];
+
+        for (int p = 0; p < n; p++) {
+            SurfaceEntity<Particle> particle = particles.get(p);
+            x[p] = particle.getX();
+            y[p] = particle.getY();
+            r[p] = particle.getEntity().getRadius();
+        }
+
+        return new PackedGrid(l, m, x, y, r);
+    }
+
+    /**
+     * Sub-cell mode: cells of side (rc + 2 maxR) / k, traversed with the half shell stencil of
+     * {@link TraversalOffset#halfShell}. Fewer candidates fall outside rc than with cells of side rc + 2 maxR.
+     */
+    public static NeighbourList calculateNeighbourList(int l, double rc, int k, final List<SurfaceEntity<Particle>> particles, boolean mortonOrder, SearchCounters counters){
+        PrimitiveGrid grid = toGrid(l, subCellM(l, rc, maxR(particles), k), particles, mortonOrder);
+        double cutoff = rc + 2 * maxR(particles);
+        int[][] stencil = TraversalOffset.halfShell(k, (double) l / grid.getNumCells(), cutoff);
+
+        NeighbourList.Builder builder = new NeighbourList.Builder(NeighbourList.ids(particles), true);
+        cellIndexMethod(grid, rc, stencil, builder::addPair, counters);
+        return builder.build();
+    }
+
+    public static int subCellM(int l, double rc, double maxR, int k){
+        return Math.max(1, (int) Math.floor(k * l / (rc + 2 * maxR)));
+    }
+
+    private static double maxR(final List<SurfaceEntity<Particle>> particles){
+        double maxR = 0;
+        for (SurfaceEntity<Particle> particle : particles) {
+            maxR = Math.max(maxR, particle.getEntity().getRadius());
+        }
+        return maxR;
+    }
+
+    public static void cellIndexMethod(PrimitiveGrid grid, double rc, PairVisitor visitor){
+        cellIndexMethod(grid, rc, TraversalOffset.L_NEIGHBOURS, visitor, new SearchCounters());
+    }
+
+    /**
+     * Visits every pair of particles in cells related by the stencil. The {0, 0} offset stands for the pairs
+     * inside each cell, which are visited once.
+     */
+    public static void cellIndexMethod(PrimitiveGrid grid, double rc, int[][] stencil, PairVisitor visitor, SearchCounters counters){
+        traverseRows(grid, rc, stencil, 0, grid.getNumCells(), visitor, counters);
+    }
+
+    /**
+     * Visits every pair of particles in the same or L neighbouring cells of a packed grid, with original indexes.
+     */
+    public static void cellIndexMethod(PackedGrid grid, double rc, PairVisitor visitor, SearchCounters counters){
+        int m = grid.getNumCells();
+        float[] px = grid.getPackedX();
+        float[] py = grid.getPackedY();
+        float[] pr = grid.getPackedR();
+        float side = (float) grid.getSide();
+        float lower = (float) (rc - grid.errorMargin(rc));
+        float upper = (float) (rc + grid.errorMargin(rc));
+        long evaluations = 0;
+        long accepted = 0;
+
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                int cell = grid.cellIndex(i, j);
+                for (int a = grid.getCellStart(cell); a < grid.getCellEnd(cell); a++) {
+                    float ax = px[a];
+                    float ay = py[a];
+                    float ar = pr[a];
+
+                    for (int[] offset : TraversalOffset.L_NEIGHBOURS) {
+                        int neighbourI = i + offset[0];
+                        int neighbourJ = j + offset[1];
+                        if (!grid.isValidCell(neighbourI, neighbourJ)) {
+                            continue;
+                        }
+                        int neighbourCell = grid.cellIndex(neighbourI, neighbourJ);
+                        // Corner of the neighbour cell relative to the corner of the current one
+                        float shiftX = offset[1] * side - ax;
+                        float shiftY = offset[0] * side - ay;
+                        int from = neighbourCell == cell ? a + 1 : grid.getCellStart(neighbourCell);
+                        int to = grid.getCellEnd(neighbourCell);
+                        evaluations += to - from;
+                        int scan = scan(grid, a, from, to, shiftX, shiftY, ar, lower, upper, visitor);
+                        accepted += scan >>> 1;
+                        if ((scan & 1) != 0) {
+                            accepted += recheckRange(grid, rc, a, from, to, shiftX, shiftY, ar, lower, upper, visitor, counters);
+                        }
+                    }
+                }
+            }
+        }
+
+        counters.add(evaluations, accepted);
+    }
+
+    /*
+     * Visits the pairs of the particle at position a with positions [from, to) whose float distance is below
+     * the margin. Returns twice the accepted pairs, plus one if some pair fell within the margin of rc. The upper
+     * bound is counted without a branch, a second branch in this loop made it almost twice as slow. The shifts
+     * already include the coordinates of the particle.
+     */
+    private static int scan(PackedGrid grid, int a, int from, int to, float shiftX, float shiftY, float ar,
+                            float lower, float upper, PairVisitor visitor){
+        float[] px = grid.getPackedX();
+        float[] py = grid.getPackedY();
+        float[] pr = grid.getPackedR();
+        int accepted = 0;
+        int below = 0;
+        for (int b = from; b < to; b++) {
+            float dx = px[b] + shiftX;
+            float dy = py[b] + shiftY;
+            float distance = ((float) Math.sqrt(dx * dx + dy * dy) - pr[b]) - ar;
+            below += distance <= upper ? 1 : 0;
+            if (distance <= lower) {
+                visitor.visit(grid.getOriginalIndex(a), grid.getOriginalIndex(b), distance);
+                accepted++;
+            }
+        }
+        return accepted << 1 | (below > accepted ? 1 : 0);
+    }
+
+    // Pairs of the range that scan left within the margin of rc, decided with the double arrays
+    private static int recheckRange(PackedGrid grid, double rc, int a, int from, int to, float shiftX, float shiftY, float ar,
+                                    float lower, float upper, PairVisitor visitor, SearchCounters counters){
+        float[] px = grid.getPackedX();
+        float[] py = grid.getPackedY();
+        float[] pr = grid.getPackedR();
+        int accepted = 0;
+        for (int b = from; b < to; b++) {
+            float dx = px[b] + shiftX;
+            float dy = py[b] + shiftY;
+            float distance = ((float) Math.sqrt(dx * dx + dy * dy) - pr[b]) - ar;
+            if (distance > lower && distance <= upper) {
+                counters.addRechecks(1);
+                if (recheck(grid, rc, grid.getOriginalIndex(a), grid.getOriginalIndex(b), visitor)) {
+                    accepted++;
+                }
+            }
+        }
+        return accepted;
+    }
+
+    // Same distance as checkPair, from the double arrays
+    private static boolean recheck(PackedGrid grid, double rc, int current, int candidate, PairVisitor visitor){
+        double dx = grid.getX()[candidate] - grid.getX()[current];
+        double dy = grid.getY()[candidate] - grid.getY()[current];
+        double distance = (Math.sqrt(dx * dx + dy * dy) - grid.getR()[candidate]) - grid.getR()[current];
+        if (distance <= rc) {
+            visitor.visit(current, candidate, distance);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reduces every pair into accumulators without storing them. Rows are split in strips that run
+     * in parallel on threads workers, each strip with a fresh accumulator, merged as the strips finish.
+     */
+    public static <A extends PairAccumulator<A>> A reduce(PrimitiveGrid grid, double rc, Supplier<A> accumulators, int threads){
+        int workers = Math.max(1, threads);
+        int stripRows = Math.max(1, grid.getNumCells() / (workers * STRIPS_PER_THREAD));
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            return pool.invoke(new ReduceTask<>(grid, rc, accumulators, 0, grid.getNumCells(), stripRows));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static class ReduceTask<A extends PairAccumulator<A>> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final PrimitiveGrid grid;
+        private final double rc;
+        private final Supplier<A> accumulators;
+        private final int fromRow, toRow, stripRows;
+
+        ReduceTask(PrimitiveGrid grid, double rc, Supplier<A> accumulators, int fromRow, int toRow, int stripRows) {
+            this.grid = grid;
+            this.rc = rc;
+            this.accumulators = accumulators;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.stripRows = stripRows;
+        }
+
+        @Override
+        protected A compute() {
+            if (toRow - fromRow > stripRows) {
+                int middle = (fromRow + toRow) / 2;
+                ReduceTask<A> bottom = new ReduceTask<>(grid, rc, accumulators, middle, toRow, stripRows);
+                bottom.fork();
+                A accumulator = new ReduceTask<>(grid, rc, accumulators, fromRow, middle, stripRows).compute();
+                accumulator.merge(bottom.join());
+                return accumulator;
+            }
+
+            A accumulator = accumulators.get();
+            traverseRows(grid, rc, TraversalOffset.L_NEIGHBOURS, fromRow, toRow, accumulator, new SearchCounters());
+            return accumulator;
+        }
+    }
+
+    // Pairs whose first cell is in rows [fromRow, toRow), the stencil may reach the rows below
+    private static void traverseRows(PrimitiveGrid grid, double rc, int[][] stencil, int fromRow, int toRow, PairVisitor visitor, SearchCounters counters){
+        int m = grid.getNumCells();
+        long evaluations = 0;
+        long accepted = 0;
+
+        for (int i = fromRow; i < toRow; i++) {
+            for (int j = 0; j < m; j++) {
+                int cell = grid.cellIndex(i, j);
+                for (int a = grid.getCellStart(cell); a < grid.getCellEnd(cell); a++) {
+                    int current = grid.getParticle(a);
+
+                    for (int b = a + 1; b < grid.getCellEnd(cell); b++) {
+                        evaluations++;
+                        if (checkPair(grid, rc, current, grid.getParticle(b), visitor)) {
+                            accepted++;
+                        }
+                    }
+
+                    for (int[] offset : stencil) {
+                        int neighbourI = i + offset[0];
+                        int neighbourJ = j + offset[1];
+                        if ((offset[0] == 0 && offset[1] == 0) || !grid.isValidCell(neighbourI, neighbourJ)) {
+                            continue;
+                        }
+                        int neighbourCell = grid.cellIndex(neighbourI, neighbourJ);
+                        for (int b = grid.getCellStart(neighbourCell); b < grid.getCellEnd(neighbourCell); b++) {
+                            evaluations++;
+                            if (checkPair(grid, rc, current, grid.getParticle(b), visitor)) {
+                                accepted++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        counters.add(evaluations, accepted);
+    }
+
+    private static boolean checkPair(PrimitiveGrid grid, double rc, int current, int candidate, PairVisitor visitor){
+        double dx = grid.getX()[candidate] - grid.getX()[current];
+        double dy = grid.getY()[candidate] - grid.getY()[current];
+        double distance = (Math.sqrt(dx * dx + dy * dy) - grid.getR()[candidate]) - grid.getR()[current];
+        if (distance <= rc) {
+            visitor.visit(grid.getOriginalIndex(current), grid.getOriginalIndex(candidate), distance);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,55 @@
+package ar.edu.itba.ss.models.methods;
+
+/**
+ * Work done by a neighbour search: distances evaluated, pairs accepted, cells scanned for candidates
+ * (once per particle and neighbouring cell) and, in packed mode, float distances too close to rc that
+ * were computed again in double.
+ */
+public class SearchCounters {
+
+    private long distanceEvaluations = 0;
+    private long acceptedPairs = 0;
+    private long rechecks = 0;
+    private long cellVisits = 0;
+
+    public void add(long distanceEvaluations, long acceptedPairs) {
+        this.distanceEvaluations += distanceEvaluations;
+        this.acceptedPairs += acceptedPairs;
+    }
+
+    public void addRechecks(long rechecks) {
+        this.rechecks += rechecks;
+    }
+
+    public void addCellVisits(long cellVisits) {
+        this.cellVisits += cellVisits;
+    }
+
+    public long getDistanceEvaluations() {
+        return distanceEvaluations;
+    }
+
+    public long getAcceptedPairs() {
+        return acceptedPairs;
+    }
+
+    public long getRechecks() {
+        return rechecks;
+    }
+
+    public long getCellVisits() {
+        return cellVisits;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(String.format("distance evaluations: %d, accepted pairs: %d", distanceEvaluations, acceptedPairs));
+        if (cellVisits > 0) {
+            builder.append(String.format(", cell visits: %d", cellVisits));
+        }
+        if (rechecks > 0) {
+            builder.append(String.format(", double rechecks: %d", rechecks));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package ar.edu.itba.ss.output;
+
+import ar.edu.itba.ss.data.NeighbourList;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.PrimitiveIterator;
+
+/**
+ * Writes a {@link NeighbourList} one particle per line, ordered by id, in the same
+ * "[id neighbour neighbour ...]" format as {@link ar.edu.itba.ss.data.ParticleDataframe}.
+ */
+public class NeighbourListWriter {
+
+    private final Writer writer;
+
+    public NeighbourListWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void write(NeighbourList neighbourList) throws IOException {
+        PrimitiveIterator.OfInt particles = neighbourList.idOrderIterator();
+        while (particles.hasNext()) {
+            int particle = particles.nextInt();
+            writer.write('[');
+            writer.write(Integer.toString(neighbourList.getId(particle)));
+            PrimitiveIterator.OfInt neighbours = neighbourList.neighbourIterator(particle);
+            while (neighbours.hasNext()) {
+                writer.write(' ');
+                writer.write(Integer.toString(neighbourList.getId(neighbours.nextInt())));
+            }
+            writer.write(']');
+            writer.write('\n');
+        }
+    }
+}
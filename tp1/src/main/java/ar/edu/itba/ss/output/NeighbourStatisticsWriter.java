@@ -0,0 +1,37 @@
+package ar.edu.itba.ss.output;
+
+import ar.edu.itba.ss.models.methods.NeighbourStatistics;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the aggregated results of a {@link NeighbourStatistics} reduction: totals first, then the
+ * coordination histogram as "k particles" lines and g(r) as "r g" lines, r at the center of each bin.
+ */
+public class NeighbourStatisticsWriter {
+
+    private final Writer writer;
+
+    public NeighbourStatisticsWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void write(NeighbourStatistics statistics) throws IOException {
+        writer.write(String.format("pairs %d%n", statistics.getPairs()));
+        writer.write(String.format("mean_distance %.6f%n", statistics.getMeanDistance()));
+        writer.write(String.format("mean_coordination %.6f%n", statistics.getMeanCoordination()));
+
+        writer.write("coordination\n");
+        long[] histogram = statistics.getCoordinationHistogram();
+        for (int k = 0; k < histogram.length; k++) {
+            writer.write(String.format("%d %d%n", k, histogram[k]));
+        }
+
+        writer.write("g(r)\n");
+        double[] g = statistics.getPairCorrelation();
+        for (int b = 0; b < g.length; b++) {
+            writer.write(String.format("%.6f %.6f%n", (b + 0.5) * statistics.getBinWidth(), g[b]));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ar.edu.itba.ss.output;
+
+import ar.edu.itba.ss.input.Workload;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a {@link Workload} as the static file ("N", "L", then "r rc" per particle) and the
+ * dynamic file (time 0, then "x y" per particle) read by {@link ar.edu.itba.ss.input.StaticFile}
+ * and {@link ar.edu.itba.ss.input.DynamicFileStream}. Values keep every digit, so reading the files
+ * gives the same doubles back.
+ */
+public class WorkloadWriter {
+
+    private static final int BUFFER = 1 << 16;
+
+    private final Workload workload;
+
+    public WorkloadWriter(Workload workload) {
+        this.workload = workload;
+    }
+
+    public void writeStatic(Path path) throws IOException {
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), BUFFER)) {
+            writer.write(workload.size() + "\n" + workload.getL() + "\n");
+            String rc = Double.toString(workload.getRc());
+            for (double r : workload.getR()) {
+                writer.write(Double.toString(r));
+                writer.write(' ');
+                writer.write(rc);
+                writer.write('\n');
+            }
+        }
+    }
+
+    public void writeDynamic(Path path) throws IOException {
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), BUFFER)) {
+            writer.write("0\n");
+            double[] x = workload.getX();
+            double[] y = workload.getY();
+            for (int i = 0; i < x.length; i++) {
+                writer.write(Double.toString(x[i]));
+                writer.write(' ');
+                writer.write(Double.toString(y[i]));
+                writer.write('\n');
+            }
+        }
+    }
+}
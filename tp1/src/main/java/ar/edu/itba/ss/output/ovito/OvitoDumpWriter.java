@@ -0,0 +1,221 @@
+package ar.edu.itba.ss.output.ovito;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.models.Cell;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.SquareGrid;
+import ar.edu.itba.ss.models.TraversalOffset;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+
+/**
+ * Streams the Ovito dump one timestep at a time: every highlighted particle is written as a frame
+ * with its neighbours, the rest of the particles, its interaction radius and the cell overlays,
+ * straight to a buffered file channel. Only the neighbour marks of the current frame are kept in
+ * memory.
+ */
+public class OvitoDumpWriter implements Closeable {
+
+    private static final String TIME_HEADER = "ITEM: TIMESTEP";
+    private static final String NUMBER_ATOMS_HEADER = "ITEM: NUMBER OF ATOMS";
+    private static final String ATOMS_HEADER = "ITEM: ATOMS id x y z type radius";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double CELL_MARGIN = 0.05;
+
+    private final Writer writer;
+    private final SquareGrid<Particle> grid;
+    private final double rc;
+    private final int timeStep;
+    private final StringBuilder line = new StringBuilder(64);
+    private boolean[] neighbourMarks = new boolean[0];
+    private int time = 0;
+
+    public OvitoDumpWriter(Path path, SquareGrid<Particle> grid, double rc, int timeStep) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.US_ASCII.newEncoder(), BUFFER_SIZE), BUFFER_SIZE);
+        this.grid = grid;
+        this.rc = rc;
+        this.timeStep = timeStep;
+    }
+
+    /**
+     * Indexes in the neighbour list of the particles with the given ids, every particle when the
+     * selection is null or empty.
+     */
+    public static int[] select(NeighbourList neighbourList, Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            int[] all = new int[neighbourList.size()];
+            for (int p = 0; p < all.length; p++) {
+                all[p] = p;
+            }
+            return all;
+        }
+
+        Map<Integer, Integer> indexes = new HashMap<>();
+        for (int p = 0; p < neighbourList.size(); p++) {
+            indexes.put(neighbourList.getId(p), p);
+        }
+        int[] selected = new int[ids.size()];
+        int count = 0;
+        for (Integer id : ids) {
+            Integer index = indexes.get(id);
+            if (index == null) {
+                throw new IllegalArgumentException("No existe la partícula con id " + id);
+            }
+            selected[count++] = index;
+        }
+        return selected;
+    }
+
+    public void writeScenes(List<SurfaceEntity<Particle>> particles, NeighbourList neighbourList, int[] highlighted) throws IOException {
+        for (int current : highlighted) {
+            writeScene(particles, neighbourList, current);
+        }
+    }
+
+    /**
+     * Writes one timestep highlighting the particle at index current, particles must be in the
+     * same order as the neighbour list.
+     */
+    public void writeScene(List<SurfaceEntity<Particle>> particles, NeighbourList neighbourList, int current) throws IOException {
+        int atoms = particles.size();
+        if (neighbourMarks.length < atoms) {
+            neighbourMarks = new boolean[atoms];
+        }
+
+        SurfaceEntity<Particle> currentParticle = particles.get(current);
+        Cell<Particle> currentCell = grid.locate(currentParticle.getX(), currentParticle.getY());
+        List<Cell<Particle>> neighbourCells = grid.getNeighbours(currentCell, TraversalOffset.L_NEIGHBOURS);
+        int numCells = grid.getNumCells();
+        int otherCells = 0;
+        for (List<Cell<Particle>> row : grid.getCells()) {
+            for (Cell<Particle> cell : row) {
+                if (!containsCell(neighbourCells, cell)) {
+                    otherCells++;
+                }
+            }
+        }
+
+        writer.write(TIME_HEADER);
+        writer.write('\n');
+        writer.write(Integer.toString(time));
+        writer.write('\n');
+        writer.write(NUMBER_ATOMS_HEADER);
+        writer.write('\n');
+        writer.write(Integer.toString(atoms + 1 + otherCells + neighbourCells.size() + 1));
+        writer.write('\n');
+        writer.write(ATOMS_HEADER);
+        writer.write('\n');
+
+        writeParticle(currentParticle, ParticleStatus.CURRENT);
+        PrimitiveIterator.OfInt neighbours = neighbourList.neighbourIterator(current);
+        while (neighbours.hasNext()) {
+            int neighbour = neighbours.nextInt();
+            neighbourMarks[neighbour] = true;
+            writeParticle(particles.get(neighbour), ParticleStatus.NEIGHBOUR);
+        }
+        for (int p = 0; p < atoms; p++) {
+            if (p != current && !neighbourMarks[p]) {
+                writeParticle(particles.get(p), ParticleStatus.OTHER);
+            }
+        }
+        neighbours = neighbourList.neighbourIterator(current);
+        while (neighbours.hasNext()) {
+            neighbourMarks[neighbours.nextInt()] = false;
+        }
+
+        writeLine(atoms + 1, currentParticle.getX(), currentParticle.getY(), ParticleStatus.RADIO, rc + currentParticle.getEntity().getRadius());
+
+        int cellId = atoms + 2;
+        for (int i = 0; i < numCells; i++) {
+            for (int j = 0; j < numCells; j++) {
+                Cell<Particle> cell = grid.getCell(i, j);
+                if (!containsCell(neighbourCells, cell)) {
+                    writeCell(cellId++, cell, ParticleStatus.CELL);
+                }
+            }
+        }
+        for (Cell<Particle> cell : neighbourCells) {
+            writeCell(cellId++, cell, ParticleStatus.NEIGHBOURCELL);
+        }
+        writeCell(cellId, currentCell, ParticleStatus.CURRENT_CELL);
+
+        time += timeStep;
+    }
+
+    private static boolean containsCell(List<Cell<Particle>> cells, Cell<Particle> cell) {
+        for (Cell<Particle> other : cells) {
+            if (other == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeParticle(SurfaceEntity<Particle> particle, ParticleStatus status) throws IOException {
+        writeLine(particle.getEntity().getId(), particle.getX(), particle.getY(), status, particle.getEntity().getRadius());
+    }
+
+    private void writeCell(int id, Cell<Particle> cell, ParticleStatus status) throws IOException {
+        writeLine(id, cell.getCenterX(), cell.getCenterY(), status, cell.getSize() / 2 - CELL_MARGIN);
+    }
+
+    // id x y z type radius, numbers with four decimals as %.4f prints them
+    private void writeLine(int id, double x, double y, ParticleStatus status, double radius) throws IOException {
+        line.setLength(0);
+        line.append(id).append(' ');
+        appendDecimal(x);
+        line.append(' ');
+        appendDecimal(y);
+        line.append(" 0.0000 ").append(status.name()).append(' ');
+        appendDecimal(radius);
+        line.append('\n');
+        writer.append(line);
+    }
+
+    // %.4f rounds the shortest decimal representation half up, near a tie the binary value can round the other
+    // way, so those go through BigDecimal
+    private void appendDecimal(double value) {
+        if (!Double.isFinite(value)) {
+            line.append(value);
+            return;
+        }
+        double scaledValue = Math.abs(value) * 10000;
+        double fraction = scaledValue - Math.floor(scaledValue);
+        if (Math.abs(value) >= 1e14 || Math.abs(fraction - 0.5) < 1e-6) {
+            line.append(new BigDecimal(Double.toString(value)).setScale(4, RoundingMode.HALF_UP).toPlainString());
+            return;
+        }
+        long scaled = Math.round(scaledValue);
+        if (value < 0 && scaled != 0) {
+            line.append('-');
+        }
+        line.append(scaled / 10000).append('.');
+        long decimals = scaled % 10000;
+        for (long digit = 1000; digit > decimals && digit > 1; digit /= 10) {
+            line.append('0');
+        }
+        line.append(decimals);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
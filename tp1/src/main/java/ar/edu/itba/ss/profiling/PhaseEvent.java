@@ -0,0 +1,41 @@
+package ar.edu.itba.ss.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one phase of the neighbour search, committed by {@link PipelineProfile.Phase#close()}.
+ * Record with -XX:StartFlightRecording and look for ar.edu.itba.ss.Phase.
+ */
+@Name("ar.edu.itba.ss.Phase")
+@Label("Neighbour Search Phase")
+@Category({"SS", "Neighbour Search"})
+@Description("A phase of the neighbour search pipeline and the work it did")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Particles")
+    long particles;
+
+    @Label("Cell Visits")
+    @Description("Cells scanned for candidates, once per particle and neighbouring cell")
+    long cellVisits;
+
+    @Label("Candidate Pairs")
+    long candidatePairs;
+
+    @Label("Accepted Pairs")
+    long acceptedPairs;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+}
@@ -0,0 +1,154 @@
+package ar.edu.itba.ss.profiling;
+
+import ar.edu.itba.ss.models.methods.SearchCounters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times the phases of a neighbour search run and the work each one did. Every phase is also a
+ * {@link PhaseEvent} in JFR, and the whole run can be written as a JSON summary.
+ */
+public class PipelineProfile {
+
+    private final List<Phase> phases = new ArrayList<>();
+
+    /**
+     * Starts a phase, it ends when it is closed.
+     */
+    public Phase start(String name) {
+        Phase phase = new Phase(name);
+        phases.add(phase);
+        return phase;
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    public Phase getPhase(String name) {
+        for (Phase phase : phases) {
+            if (phase.name.equals(name)) {
+                return phase;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {"algorithm": .., "parameters": {..}, "totalMs": .., "phases": [{"name": .., "ms": .., counters}]},
+     * phases in the order they were started, the ones still running are left out.
+     */
+    public void writeSummary(Path path, String algorithm, Map<String, Object> parameters) throws IOException {
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        long total = 0;
+        for (Phase phase : phases) {
+            if (phase.nanos < 0) {
+                continue;
+            }
+            total += phase.nanos;
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("name", phase.name);
+            summary.put("ms", phase.nanos / 1000000.0);
+            summary.put("particles", phase.particles);
+            summary.put("cellVisits", phase.cellVisits);
+            summary.put("candidatePairs", phase.candidatePairs);
+            summary.put("acceptedPairs", phase.acceptedPairs);
+            summary.put("bytesWritten", phase.bytesWritten);
+            summaries.add(summary);
+        }
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("algorithm", algorithm);
+        root.put("parameters", parameters);
+        root.put("totalMs", total / 1000000.0);
+        root.put("phases", summaries);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), root);
+    }
+
+    public static class Phase implements AutoCloseable {
+
+        private final String name;
+        private final PhaseEvent event = new PhaseEvent();
+        private final long start;
+        private long nanos = -1;
+        private long particles, cellVisits, candidatePairs, acceptedPairs, bytesWritten;
+
+        private Phase(String name) {
+            this.name = name;
+            event.begin();
+            this.start = System.nanoTime();
+        }
+
+        public Phase particles(long particles) {
+            this.particles = particles;
+            return this;
+        }
+
+        public Phase counters(SearchCounters counters) {
+            this.cellVisits = counters.getCellVisits();
+            this.candidatePairs = counters.getDistanceEvaluations();
+            this.acceptedPairs = counters.getAcceptedPairs();
+            return this;
+        }
+
+        public Phase acceptedPairs(long acceptedPairs) {
+            this.acceptedPairs = acceptedPairs;
+            return this;
+        }
+
+        public Phase bytesWritten(long bytesWritten) {
+            this.bytesWritten = bytesWritten;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            nanos = System.nanoTime() - start;
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.particles = particles;
+                event.cellVisits = cellVisits;
+                event.candidatePairs = candidatePairs;
+                event.acceptedPairs = acceptedPairs;
+                event.bytesWritten = bytesWritten;
+                event.commit();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getParticles() {
+            return particles;
+        }
+
+        public long getCellVisits() {
+            return cellVisits;
+        }
+
+        public long getCandidatePairs() {
+            return candidatePairs;
+        }
+
+        public long getAcceptedPairs() {
+            return acceptedPairs;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+    }
+}
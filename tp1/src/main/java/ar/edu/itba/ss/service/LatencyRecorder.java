@@ -0,0 +1,58 @@
+package ar.edu.itba.ss.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Latencies of the last {@link #WINDOW} requests, percentiles are taken over that window by nearest rank.
+ */
+public class LatencyRecorder {
+
+    public static final int WINDOW = 1 << 16;
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final long[] samples = new long[WINDOW];
+    private long count = 0;
+    private long max = 0;
+
+    public synchronized void record(long nanos) {
+        samples[(int) (count % WINDOW)] = nanos;
+        count++;
+        max = Math.max(max, nanos);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Latency in nanoseconds below which percentile % of the requests in the window fall, 0 without requests.
+     */
+    public synchronized long percentile(double percentile) {
+        int size = (int) Math.min(count, WINDOW);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * size / 100);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * "count=N p50=.. p90=.. p99=.. p99.9=.. max=.." with the latencies in microseconds.
+     */
+    public synchronized String summary() {
+        StringBuilder builder = new StringBuilder("count=").append(count);
+        for (double percentile : PERCENTILES) {
+            builder.append(" p").append(percentile == Math.rint(percentile) ? Integer.toString((int) percentile) : Double.toString(percentile))
+                    .append('=').append(micros(percentile(percentile)));
+        }
+        return builder.append(" max=").append(micros(max)).toString();
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1000.0);
+    }
+}
@@ -0,0 +1,89 @@
+package ar.edu.itba.ss.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client for a {@link NeighbourQueryService} listening on a local port.
+ */
+public class NeighbourQueryClient implements Closeable {
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+    private long lastLatency = 0;
+
+    public NeighbourQueryClient(int port) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sends the queries as one batch and returns one line per query.
+     */
+    public List<String> batch(List<String> queries) throws IOException {
+        StringBuilder request = new StringBuilder("BATCH ").append(queries.size()).append('\n');
+        for (String query : queries) {
+            request.append(query).append('\n');
+        }
+        out.write(request.toString());
+        out.flush();
+
+        List<String> results = new ArrayList<>(queries.size());
+        for (int q = 0; q < queries.size(); q++) {
+            results.add(readLine());
+        }
+        String ok = readLine();
+        if (!ok.startsWith("OK ")) {
+            throw new IOException("Unexpected response: " + ok);
+        }
+        lastLatency = Long.parseLong(ok.substring(3).trim());
+        return results;
+    }
+
+    public String stats() throws IOException {
+        out.write("STATS\n");
+        out.flush();
+        String stats = readLine();
+        String ok = readLine();
+        if (!ok.equals("OK")) {
+            throw new IOException("Unexpected response: " + ok);
+        }
+        return stats;
+    }
+
+    /**
+     * Latency reported by the service for the last batch, in microseconds.
+     */
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    private String readLine() throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new IOException("The service closed the connection");
+        }
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.write("QUIT\n");
+            out.flush();
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package ar.edu.itba.ss.service;
+
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.SpatialIndex;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers neighbour queries over a particle set loaded once, the {@link SpatialIndex} is kept between requests.
+ * The protocol is line based, a request is either a single query or "BATCH n" followed by n queries:
+ * <pre>
+ * RADIUS x y rc      ids of the particles whose border is at most rc from the point, by id
+ * NEIGHBOURS id rc   ids of the particles at most rc from the border of particle id, by id
+ * KNN id k           ids of the k particles with the closest centers to particle id, closest first
+ * STATS              latency percentiles of the requests answered so far, in microseconds
+ * QUIT               ends the session
+ * </pre>
+ * Each query is answered with one line, "ERROR message" if it could not be answered, and every request ends
+ * with an "OK" line: "OK latency" in microseconds after queries, a plain "OK" after STATS and after a BATCH
+ * line that could not be read, which are not timed. Queries only read the index, so sessions can be served
+ * concurrently.
+ */
+public class NeighbourQueryService {
+
+    private final SpatialIndex index;
+    private final Map<Integer, SurfaceEntity<Particle>> particles = new HashMap<>();
+    private final LatencyRecorder latencies = new LatencyRecorder();
+
+    public NeighbourQueryService(int l, int m, List<SurfaceEntity<Particle>> particles) {
+        this.index = new SpatialIndex(l, m, particles);
+        for (SurfaceEntity<Particle> particle : particles) {
+            this.particles.put(particle.getEntity().getId(), particle);
+        }
+    }
+
+    /**
+     * Serves requests from in until QUIT or the end of the input.
+     */
+    public void serve(BufferedReader in, Writer out) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            String command = tokens[0].toUpperCase();
+            if (command.equals("QUIT")) {
+                break;
+            }
+            if (command.equals("STATS")) {
+                out.write("STATS " + latencies.summary() + "\nOK\n");
+                out.flush();
+                continue;
+            }
+
+            if (command.equals("BATCH")) {
+                int size = tokens.length == 2 ? batchSize(tokens[1]) : -1;
+                if (size < 0) {
+                    out.write("ERROR Se esperaba BATCH n\nOK\n");
+                    out.flush();
+                    continue;
+                }
+                String[] queries = new String[size];
+                for (int q = 0; q < size; q++) {
+                    queries[q] = in.readLine();
+                    if (queries[q] == null) {
+                        throw new IOException("The input ended inside a batch of " + size + " queries");
+                    }
+                }
+                answer(queries, out);
+            } else {
+                answer(new String[]{line}, out);
+            }
+        }
+    }
+
+    private static int batchSize(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Accepts connections until the socket is closed, each connection is a session with a thread of its own.
+     */
+    public void serve(ServerSocket server) throws IOException {
+        ExecutorService sessions = Executors.newCachedThreadPool();
+        try {
+            while (true) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketException e) {
+                    if (server.isClosed()) {
+                        return;
+                    }
+                    throw e;
+                }
+                sessions.execute(() -> session(socket));
+            }
+        } finally {
+            sessions.shutdown();
+        }
+    }
+
+    private void session(Socket socket) {
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8)) {
+            serve(in, out);
+        } catch (IOException e) {
+            System.err.println("Ocurrió un error en la sesión " + socket.getRemoteSocketAddress() + ": " + e.getMessage());
+        }
+    }
+
+    private void answer(String[] queries, Writer out) throws IOException {
+        long start = System.nanoTime();
+        StringBuilder response = new StringBuilder();
+        for (String query : queries) {
+            query(query.trim().split("\\s+"), response);
+            response.append('\n');
+        }
+        long latency = System.nanoTime() - start;
+        latencies.record(latency);
+        response.append("OK ").append(latency / 1000).append('\n');
+        out.write(response.toString());
+        out.flush();
+    }
+
+    private void query(String[] tokens, StringBuilder response) {
+        try {
+            switch (tokens[0].toUpperCase()) {
+                case "RADIUS":
+                    appendSorted(index.queryRadius(Double.parseDouble(tokens[1]), Double.parseDouble(tokens[2]), Double.parseDouble(tokens[3])), response);
+                    break;
+                case "NEIGHBOURS":
+                    appendSorted(index.queryNeighbours(particle(tokens[1]), Double.parseDouble(tokens[2])), response);
+                    break;
+                case "KNN":
+                    append(index.getGrid().kNearest(particle(tokens[1]), Integer.parseInt(tokens[2])), response);
+                    break;
+                default:
+                    response.append("ERROR Consulta no reconocida: ").append(tokens[0]);
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            response.append("ERROR Faltan argumentos para ").append(tokens[0]);
+        } catch (IllegalArgumentException e) {
+            response.append("ERROR ").append(e.getMessage());
+        }
+    }
+
+    private SurfaceEntity<Particle> particle(String id) {
+        SurfaceEntity<Particle> particle = particles.get(Integer.parseInt(id));
+        if (particle == null) {
+            throw new IllegalArgumentException("No existe la partícula " + id);
+        }
+        return particle;
+    }
+
+    private static void appendSorted(List<SurfaceEntity<Particle>> results, StringBuilder response) {
+        results.sort((a, b) -> Integer.compare(a.getEntity().getId(), b.getEntity().getId()));
+        append(results, response);
+    }
+
+    private static void append(List<SurfaceEntity<Particle>> results, StringBuilder response) {
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                response.append(' ');
+            }
+            response.append(results.get(i).getEntity().getId());
+        }
+    }
+
+    public LatencyRecorder getLatencies() {
+        return latencies;
+    }
+
+    public int size() {
+        return particles.size();
+    }
+}
@@ -0,0 +1,174 @@
+package ar.edu.itba.ss;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.input.DynamicFileStream;
+import ar.edu.itba.ss.input.Workload;
+import ar.edu.itba.ss.input.WorkloadGenerator;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import ar.edu.itba.ss.models.methods.BruteForce;
+import ar.edu.itba.ss.models.methods.CellIndexMethod;
+import ar.edu.itba.ss.output.NeighbourListWriter;
+import ar.edu.itba.ss.output.WorkloadWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class MainTest {
+
+    private static final int L = 20;
+    private static final int M = 6;
+    private static final double RC = 1.5;
+    private static final double R = 0.3;
+    private static final int N = 200;
+    private static final String PARAMETERS = "parameters\n";
+
+    @Test
+    public void testEveryFrameSameAsCellIndexMethod() throws IOException {
+        Random random = new Random(3);
+        List<Particle> particles = new ArrayList<>();
+        for (int i = 0; i < N; i++) {
+            particles.add(new Particle(R));
+        }
+        double[][][] frames = new double[4][N][2];
+        for (int i = 0; i < N; i++) {
+            frames[0][i][0] = random.nextDouble() * L;
+            frames[0][i][1] = random.nextDouble() * L;
+            for (int f = 1; f < frames.length; f++) {
+                // Small moves, so most particles stay in their cell, and the last frame far from the first
+                double step = f == frames.length - 1 ? L / 2.0 : 0.4;
+                frames[f][i][0] = Math.min(L, Math.max(0, frames[f - 1][i][0] + (random.nextDouble() - 0.5) * step));
+                frames[f][i][1] = Math.min(L, Math.max(0, frames[f - 1][i][1] + (random.nextDouble() - 0.5) * step));
+            }
+        }
+
+        StringBuilder content = new StringBuilder();
+        StringBuilder expected = new StringBuilder(PARAMETERS);
+        for (int f = 0; f < frames.length; f++) {
+            content.append(f * 0.5).append('\n');
+            if (f == 2) {
+                content.append('\n');
+            }
+            List<SurfaceEntity<Particle>> frame = new ArrayList<>();
+            for (int i = 0; i < N; i++) {
+                content.append(frames[f][i][0]).append(' ').append(frames[f][i][1]).append('\n');
+                frame.add(new SurfaceEntity<>(particles.get(i), frames[f][i][0], frames[f][i][1]));
+            }
+            expected.append("t = ").append(f * 0.5).append('\n').append(toString(CellIndexMethod.calculateNeighbourList(L, M, RC, frame, 1)));
+        }
+
+        List<SurfaceEntity<Particle>> entityParticles = new ArrayList<>();
+        for (int i = 0; i < N; i++) {
+            entityParticles.add(new SurfaceEntity<>(particles.get(i), frames[0][i][0], frames[0][i][1]));
+        }
+        NeighbourList firstFrame = CellIndexMethod.calculateNeighbourList(L, M, RC, entityParticles, 1);
+
+        Path dynamic = write(content.toString());
+        Path results = Files.createTempFile("results", ".txt");
+        try (DynamicFileStream stream = new DynamicFileStream(dynamic)) {
+            Main.processFrames(stream, results.toString(), PARAMETERS, L, M, RC, 2, entityParticles, firstFrame, false);
+            assertEquals(expected.toString(), new String(Files.readAllBytes(results), StandardCharsets.US_ASCII));
+        } finally {
+            Files.delete(dynamic);
+            Files.delete(results);
+        }
+    }
+
+    @Test
+    public void testShortFrameIsRejected() throws IOException {
+        assertFrameRejected(N - 1);
+    }
+
+    @Test
+    public void testLongFrameIsRejected() throws IOException {
+        assertFrameRejected(N + 1);
+    }
+
+    private static void assertFrameRejected(int secondFrameCount) throws IOException {
+        List<SurfaceEntity<Particle>> entityParticles = new ArrayList<>();
+        StringBuilder content = new StringBuilder("0\n");
+        for (int i = 0; i < N; i++) {
+            entityParticles.add(new SurfaceEntity<>(new Particle(R), 1, 1));
+            content.append("1 1\n");
+        }
+        content.append("1\n");
+        for (int i = 0; i < secondFrameCount; i++) {
+            content.append("2 2\n");
+        }
+        NeighbourList firstFrame = CellIndexMethod.calculateNeighbourList(L, M, RC, entityParticles, 1);
+
+        Path dynamic = write(content.toString());
+        Path results = Files.createTempFile("results", ".txt");
+        try (DynamicFileStream stream = new DynamicFileStream(dynamic)) {
+            Main.processFrames(stream, results.toString(), PARAMETERS, L, M, RC, 1, entityParticles, firstFrame, false);
+            fail("The frame with " + secondFrameCount + " positions was accepted");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains(secondFrameCount + " positions"));
+        } finally {
+            Files.delete(dynamic);
+            Files.delete(results);
+        }
+    }
+
+    @Test
+    public void testOutOfCoreSameAsBruteForce() throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator(9, 1);
+        Workload workload = generator.generate(WorkloadGenerator.Distribution.UNIFORM, L, RC, generator.radii(N * 5, 0.1, R));
+        Set<String> expected = new HashSet<>();
+        NeighbourList bruteForce = BruteForce.calculateNeighbourList(workload.toEntities(), RC);
+        for (int p = 0; p < bruteForce.size(); p++) {
+            for (int k = 0; k < bruteForce.getNeighbourCount(p); k++) {
+                int neighbour = bruteForce.getNeighbour(p, k);
+                expected.add(Math.min(p, neighbour) + 1 + " " + (Math.max(p, neighbour) + 1));
+            }
+        }
+
+        Path directory = Files.createTempDirectory("input");
+        try {
+            WorkloadWriter workloadWriter = new WorkloadWriter(workload);
+            workloadWriter.writeStatic(directory.resolve("static.txt"));
+            workloadWriter.writeDynamic(directory.resolve("dynamic.txt"));
+
+            // The M that fits rc, and one with several rows per cell
+            for (int m : new int[]{0, 3}) {
+                Path output = directory.resolve("output_" + m);
+                Main.outOfCore(directory, "static.txt", "dynamic.txt", m, output.toString(), false);
+                List<String> lines = Files.readAllLines(output.resolve("results_oocim.txt"));
+                Set<String> actual = new HashSet<>();
+                for (String line : lines.subList(1, lines.size())) {
+                    String[] ids = line.split(" ");
+                    int a = Integer.parseInt(ids[0]);
+                    int b = Integer.parseInt(ids[1]);
+                    assertTrue("Pair written twice: " + line, actual.add(Math.min(a, b) + " " + Math.max(a, b)));
+                }
+                assertEquals(expected, actual);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static String toString(NeighbourList neighbourList) throws IOException {
+        StringWriter writer = new StringWriter();
+        new NeighbourListWriter(writer).write(neighbourList);
+        return writer.toString();
+    }
+
+    private static Path write(String content) throws IOException {
+        Path path = Files.createTempFile("dynamic", ".txt");
+        Files.write(path, content.getBytes(StandardCharsets.US_ASCII));
+        return path;
+    }
+}
@@ -0,0 +1,105 @@
+package ar.edu.itba.ss.input;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class DynamicFileStreamTest {
+
+    @Test
+    public void testFramesSplitAtTimeLines() throws IOException {
+        // Blank lines inside and between frames, the last frame without a final newline
+        String content = "0\n1 1.5\n2 2.5\n\n0.5\n\n3 3.5\n4 4.5\n\n1\n5 5.5";
+        Path path = write(content);
+        try (DynamicFileStream stream = new DynamicFileStream(path)) {
+            assertTrue(stream.nextFrame());
+            assertEquals(0, stream.getTime(), 0);
+            assertEquals(2, stream.getCount());
+            assertEquals(2, stream.getX(1), 0);
+            assertEquals(2.5, stream.getY(1), 0);
+
+            assertTrue(stream.nextFrame());
+            assertEquals(0.5, stream.getTime(), 0);
+            assertEquals(2, stream.getCount());
+            assertEquals(3, stream.getX(0), 0);
+            assertEquals(4.5, stream.getY(1), 0);
+
+            assertTrue(stream.nextFrame());
+            assertEquals(1, stream.getTime(), 0);
+            assertEquals(1, stream.getCount());
+            assertEquals(5.5, stream.getY(0), 0);
+
+            assertFalse(stream.nextFrame());
+            assertFalse(stream.nextFrame());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testTrailingTimeIsAnEmptyFrame() throws IOException {
+        Path path = write("0\n1 1\n2\n");
+        try (DynamicFileStream stream = new DynamicFileStream(path)) {
+            assertTrue(stream.nextFrame());
+            assertEquals(1, stream.getCount());
+            assertTrue(stream.nextFrame());
+            assertEquals(2, stream.getTime(), 0);
+            assertEquals(0, stream.getCount());
+            assertFalse(stream.nextFrame());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testBuffersGrow() throws IOException {
+        StringBuilder content = new StringBuilder("0\n");
+        for (int i = 0; i < 3000; i++) {
+            content.append(i).append(' ').append(-i).append('\n');
+        }
+        content.append("1\n7 8\n");
+        Path path = write(content.toString());
+        try (DynamicFileStream stream = new DynamicFileStream(path)) {
+            assertTrue(stream.nextFrame());
+            assertEquals(3000, stream.getCount());
+            assertEquals(2999, stream.getX(2999), 0);
+            assertEquals(-2999, stream.getY(2999), 0);
+            assertTrue(stream.nextFrame());
+            assertEquals(1, stream.getCount());
+            assertEquals(7, stream.getX(0), 0);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testEmptyFileHasNoFrames() throws IOException {
+        Path path = write("");
+        try (DynamicFileStream stream = new DynamicFileStream(path)) {
+            assertFalse(stream.nextFrame());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testFirstLineMustBeTime() throws IOException {
+        Path path = write("1 1\n0\n");
+        try (DynamicFileStream stream = new DynamicFileStream(path)) {
+            stream.nextFrame();
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static Path write(String content) throws IOException {
+        Path path = Files.createTempFile("dynamic", ".txt");
+        Files.write(path, content.getBytes(StandardCharsets.US_ASCII));
+        return path;
+    }
+}
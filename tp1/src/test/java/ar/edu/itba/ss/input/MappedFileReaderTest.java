@@ -0,0 +1,87 @@
+package ar.edu.itba.ss.input;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MappedFileReaderTest {
+
+    private final Random random = new Random(7);
+
+    @Test
+    public void testParsesLikeDoubleParseDouble() throws IOException {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 10);
+            values.add(Double.toString(value));
+            values.add(String.format(Locale.ROOT, "%.7f", value));
+            values.add(String.format(Locale.ROOT, "%.17e", value));
+            double bits = Double.longBitsToDouble(random.nextLong());
+            values.add(Double.isFinite(bits) ? Double.toString(bits) : "1");
+        }
+        values.add("0");
+        values.add("-0.0");
+        values.add(".5");
+        values.add("5.");
+        values.add("1e300");
+        values.add("123456789012345678901234567890");
+        values.add("NaN");
+        values.add("2d");
+        values.add("9007199254740993");
+        values.add("2.2250738585072011e-308");
+        values.add("4.9e-324");
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < values.size(); i += 2) {
+            content.append("  ").append(values.get(i));
+            if (i + 1 < values.size()) {
+                content.append('\t').append(values.get(i + 1));
+            }
+            content.append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+
+        try (MappedFileReader reader = new MappedFileReader(write(content.toString()))) {
+            for (int i = 0; i < values.size(); i += 2) {
+                assertTrue(reader.hasNextLine());
+                int tokens = reader.nextLine();
+                assertEquals(Math.min(2, values.size() - i), tokens);
+                for (int k = 0; k < tokens; k++) {
+                    String value = values.get(i + k);
+                    assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)), Double.doubleToLongBits(reader.getToken(k)));
+                }
+            }
+            assertFalse(reader.hasNextLine());
+        }
+    }
+
+    @Test
+    public void testLinesAndIntegers() throws IOException {
+        try (MappedFileReader reader = new MappedFileReader(write("100\n 20 \n\n0.25 1\n1 2 3\n0.5 1"))) {
+            assertEquals(100, reader.nextInt());
+            assertEquals(20, reader.nextInt());
+            assertEquals(0, reader.nextLine());
+            assertEquals(2, reader.nextLine());
+            assertEquals(0.25, reader.getToken(0), 0);
+            assertEquals(3, reader.nextLine());
+            assertEquals(2, reader.nextLine());
+            assertEquals(0.5, reader.getToken(0), 0);
+            assertFalse(reader.hasNextLine());
+        }
+    }
+
+    private static Path write(String content) throws IOException {
+        Path path = Files.createTempFile("mapped", ".txt");
+        path.toFile().deleteOnExit();
+        Files.write(path, content.getBytes(StandardCharsets.US_ASCII));
+        return path;
+    }
+}
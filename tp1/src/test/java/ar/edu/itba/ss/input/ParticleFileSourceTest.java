@@ -0,0 +1,87 @@
+package ar.edu.itba.ss.input;
+
+import ar.edu.itba.ss.models.exceptions.ParticleOutOfBoundsException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class ParticleFileSourceTest {
+
+    private static final String STATIC = "3\n10\n0.1 1.5\n\n0.4 1.5\n0.2 1.5\n";
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("input");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testReadsHeaderAndFirstFrame() throws IOException {
+        write("static.txt", STATIC);
+        // Blank lines inside the frame, the second frame is not read
+        write("dynamic.txt", "0\n1 2\n\n3 4\n10 10\n1\n5 5\n5 5\n5 5\n");
+        ParticleFileSource source = new ParticleFileSource(directory, "static.txt", "dynamic.txt");
+        assertEquals(3, source.getN());
+        assertEquals(10, source.getL());
+        assertEquals(1.5, source.getRc(), 0);
+        assertEquals(0.4, source.getMaxR(), 0);
+
+        List<double[]> particles = new ArrayList<>();
+        source.read((index, x, y, r) -> particles.add(new double[]{index, x, y, r}));
+        assertEquals(3, particles.size());
+        assertArrayEquals(new double[]{0, 1, 2, 0.1}, particles.get(0), 0);
+        assertArrayEquals(new double[]{1, 3, 4, 0.4}, particles.get(1), 0);
+        assertArrayEquals(new double[]{2, 10, 10, 0.2}, particles.get(2), 0);
+
+        // Every call reads the files again
+        particles.clear();
+        source.read((index, x, y, r) -> particles.add(new double[]{index, x, y, r}));
+        assertEquals(3, particles.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testShortFrame() throws IOException {
+        write("static.txt", STATIC);
+        write("dynamic.txt", "0\n1 2\n3 4\n1\n5 5\n");
+        new ParticleFileSource(directory, "static.txt", "dynamic.txt").read((index, x, y, r) -> { });
+    }
+
+    @Test(expected = ParticleOutOfBoundsException.class)
+    public void testOutOfBounds() throws IOException {
+        write("static.txt", STATIC);
+        write("dynamic.txt", "0\n1 2\n3 4\n10.5 1\n");
+        new ParticleFileSource(directory, "static.txt", "dynamic.txt").read((index, x, y, r) -> { });
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testMissingFile() throws IOException {
+        write("static.txt", STATIC);
+        new ParticleFileSource(directory, "static.txt", "dynamic.txt");
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(directory.resolve(name), content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,88 @@
+package ar.edu.itba.ss.input;
+
+import ar.edu.itba.ss.models.methods.PrimitiveCellIndexMethod;
+import ar.edu.itba.ss.output.WorkloadWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class WorkloadGeneratorTest {
+
+    private static final int N = 40000;
+    private static final int L = 100;
+    private static final double RC = 1;
+
+    @Test
+    public void testSameWorkloadForAnyThreads() {
+        for (WorkloadGenerator.Distribution distribution : WorkloadGenerator.Distribution.values()) {
+            Workload sequential = generate(distribution, 9, 1);
+            Workload parallel = generate(distribution, 9, 4);
+            assertArrayEquals(sequential.getR(), parallel.getR(), 0);
+            assertArrayEquals(sequential.getX(), parallel.getX(), 0);
+            assertArrayEquals(sequential.getY(), parallel.getY(), 0);
+
+            assertFalse(Arrays.equals(sequential.getX(), generate(distribution, 10, 1).getX()));
+            for (int i = 0; i < N; i++) {
+                assertTrue(sequential.getX()[i] >= 0 && sequential.getX()[i] <= L);
+                assertTrue(sequential.getY()[i] >= 0 && sequential.getY()[i] <= L);
+            }
+        }
+    }
+
+    @Test
+    public void testPoissonDiskAndLatticeDoNotOverlap() {
+        for (WorkloadGenerator.Distribution distribution : new WorkloadGenerator.Distribution[]{
+                WorkloadGenerator.Distribution.POISSON_DISK, WorkloadGenerator.Distribution.LATTICE}) {
+            Workload workload = generate(distribution, 3, 2);
+            PrimitiveCellIndexMethod.cellIndexMethod(PrimitiveCellIndexMethod.toGrid(L, 100, workload.toEntities()), 0,
+                    (a, b, distance) -> assertTrue(distance >= 0));
+        }
+    }
+
+    @Test
+    public void testFilesReadBack() throws IOException {
+        Workload workload = generate(WorkloadGenerator.Distribution.POISSON_DISK, 5, 2);
+        Path folder = Files.createTempDirectory("workload");
+        Path staticPath = folder.resolve("static.txt");
+        Path dynamicPath = folder.resolve("dynamic.txt");
+        try {
+            WorkloadWriter writer = new WorkloadWriter(workload);
+            writer.writeStatic(staticPath);
+            writer.writeDynamic(dynamicPath);
+
+            try (MappedFileReader reader = new MappedFileReader(staticPath)) {
+                assertEquals(N, reader.nextInt());
+                assertEquals(L, reader.nextInt());
+                for (int i = 0; i < N; i++) {
+                    assertEquals(2, reader.nextLine());
+                    assertEquals(workload.getR()[i], reader.getToken(0), 0);
+                    assertEquals(RC, reader.getToken(1), 0);
+                }
+            }
+            try (MappedFileReader reader = new MappedFileReader(dynamicPath)) {
+                assertEquals(0, reader.nextInt());
+                for (int i = 0; i < N; i++) {
+                    assertEquals(2, reader.nextLine());
+                    assertEquals(workload.getX()[i], reader.getToken(0), 0);
+                    assertEquals(workload.getY()[i], reader.getToken(1), 0);
+                }
+                assertFalse(reader.hasNextLine());
+            }
+        } finally {
+            Files.deleteIfExists(staticPath);
+            Files.deleteIfExists(dynamicPath);
+            Files.deleteIfExists(folder);
+        }
+    }
+
+    private static Workload generate(WorkloadGenerator.Distribution distribution, long seed, int threads) {
+        // Packing fraction of about 0.45 with radii in [0.1, 0.25]
+        WorkloadGenerator generator = new WorkloadGenerator(seed, threads);
+        return generator.generate(distribution, L, RC, generator.radii(N, 0.1, 0.25));
+    }
+}
@@ -0,0 +1,58 @@
+package ar.edu.itba.ss.models;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveGridTest {
+
+    private static final int L = 100;
+    private static final int N = 2000;
+
+    @Test
+    public void testMortonOrderIsPermutationSortedByCode() {
+        // Powers of two, other sizes and more cells than particles
+        for (int m : new int[]{1, 7, 8, 100, 3000}) {
+            Random random = new Random(m);
+            double[] x = new double[N], y = new double[N], r = new double[N];
+            for (int p = 0; p < N; p++) {
+                x[p] = random.nextDouble() * L;
+                y[p] = random.nextDouble() * L;
+                r[p] = random.nextDouble();
+            }
+            x[0] = L;
+            y[0] = L;
+
+            PrimitiveGrid grid = PrimitiveGrid.mortonOrdered(L, m, x, y, r);
+            boolean[] seen = new boolean[N];
+            long previous = -1;
+            for (int k = 0; k < N; k++) {
+                int original = grid.getOriginalIndex(k);
+                assertFalse(seen[original]);
+                seen[original] = true;
+                assertEquals(x[original], grid.getX()[k], 0);
+                assertEquals(y[original], grid.getY()[k], 0);
+                assertEquals(r[original], grid.getR()[k], 0);
+
+                int cell = grid.locate(grid.getX()[k], grid.getY()[k]);
+                long code = PrimitiveGrid.morton(cell / m, cell % m);
+                assertTrue(code >= previous);
+                previous = code;
+            }
+        }
+    }
+
+    @Test
+    public void testMortonCodeAboveSignBit() {
+        assertEquals(0xAAAAAAAAL, PrimitiveGrid.morton(0xFFFF, 0));
+        assertEquals(0xFFFFFFFFL, PrimitiveGrid.morton(0xFFFF, 0xFFFF));
+        assertEquals(3L << 30, PrimitiveGrid.morton(1 << 15, 1 << 15));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyCells() {
+        PrimitiveGrid.mortonOrdered(L, PrimitiveGrid.MAX_NUM_CELLS + 1, new double[1], new double[1], new double[1]);
+    }
+}
@@ -0,0 +1,83 @@
+package ar.edu.itba.ss.models;
+
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import ar.edu.itba.ss.models.exceptions.ParticleOutOfBoundsException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class SpatialIndexTest {
+
+    private static final int L = 20;
+    private static final int M = 10;
+    private static final double RC = 1.0;
+
+    private final Random random = new Random(99);
+    private final List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+    private SpatialIndex index;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 500; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(0.1 + random.nextDouble() * 0.2), random.nextDouble() * L, random.nextDouble() * L));
+        }
+        index = new SpatialIndex(L, M, particles);
+    }
+
+    @Test
+    public void testMoveKeepsQueriesExact() {
+        for (SurfaceEntity<Particle> particle : particles) {
+            double x = Math.min(L, Math.max(0, particle.getX() + random.nextDouble() - 0.5));
+            double y = Math.min(L, Math.max(0, particle.getY() + random.nextDouble() - 0.5));
+            index.move(particle, x, y);
+        }
+
+        for (SurfaceEntity<Particle> particle : particles) {
+            assertEquals(bruteForce(particle), ids(index.queryNeighbours(particle, RC)));
+        }
+    }
+
+    @Test
+    public void testMoveOutOfBoundsKeepsParticle() {
+        SurfaceEntity<Particle> particle = particles.get(0);
+        double x = particle.getX();
+        double y = particle.getY();
+        for (double[] position : new double[][]{{L + 0.5, y}, {x, -3 * L}}) {
+            try {
+                index.move(particle, position[0], position[1]);
+                fail();
+            } catch (ParticleOutOfBoundsException e) {
+                assertEquals(x, particle.getX(), 0);
+                assertEquals(y, particle.getY(), 0);
+            }
+        }
+        assertEquals(bruteForce(particle), ids(index.queryNeighbours(particle, RC)));
+    }
+
+    @Test
+    public void testRemove() {
+        SurfaceEntity<Particle> removed = particles.remove(0);
+        assertTrue(index.remove(removed));
+        assertFalse(index.contains(removed));
+        assertEquals(particles.size(), index.size());
+
+        List<SurfaceEntity<Particle>> found = index.queryRadius(removed.getX(), removed.getY(), RC);
+        assertFalse(found.contains(removed));
+    }
+
+    private Set<Integer> bruteForce(SurfaceEntity<Particle> particle) {
+        return particles.stream()
+                .filter(other -> other != particle)
+                .filter(other -> particle.distanceTo(other) - other.getEntity().getRadius() - particle.getEntity().getRadius() <= RC)
+                .map(other -> other.getEntity().getId())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<Integer> ids(List<SurfaceEntity<Particle>> particles) {
+        return particles.stream().map(p -> p.getEntity().getId()).collect(Collectors.toSet());
+    }
+}
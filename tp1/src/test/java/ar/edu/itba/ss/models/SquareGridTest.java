@@ -0,0 +1,82 @@
+package ar.edu.itba.ss.models;
+
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class SquareGridTest {
+
+    private static final int L = 20;
+
+    private final List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Random random = new Random(77);
+        for (int i = 0; i < 600; i++) {
+            // Half of them in one corner, so some rings are empty and others crowded
+            double spread = i % 2 == 0 ? L : 3;
+            particles.add(new SurfaceEntity<>(new Particle(0.2), random.nextDouble() * spread, random.nextDouble() * spread));
+        }
+    }
+
+    @Test
+    public void testKNearestSameAsSorting() {
+        for (int m : new int[]{1, 7, 8}) {
+            for (boolean periodic : new boolean[]{false, true}) {
+                SquareGrid<Particle> grid = grid(m);
+                for (int k : new int[]{1, 5, 40, 700}) {
+                    for (SurfaceEntity<Particle> particle : particles.subList(0, 60)) {
+                        assertEquals(sorted(particle, k, periodic), ids(grid.kNearest(particle, k, periodic)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParallelBatchSameAsSingleQueries() {
+        SquareGrid<Particle> grid = grid(8);
+        List<List<SurfaceEntity<Particle>>> batch = grid.kNearest(particles, 6, true, 4);
+
+        assertEquals(particles.size(), batch.size());
+        for (int p = 0; p < particles.size(); p++) {
+            assertEquals(ids(grid.kNearest(particles.get(p), 6, true)), ids(batch.get(p)));
+        }
+    }
+
+    private SquareGrid<Particle> grid(int m) {
+        SquareGrid<Particle> grid = new SquareGrid<>(L, m);
+        particles.forEach(grid::place);
+        return grid;
+    }
+
+    private List<Integer> sorted(SurfaceEntity<Particle> particle, int k, boolean periodic) {
+        return particles.stream()
+                .filter(other -> !other.equals(particle))
+                .sorted(Comparator.<SurfaceEntity<Particle>>comparingDouble(other -> distance(particle, other, periodic))
+                        .thenComparing(other -> other.getEntity().getId()))
+                .limit(k)
+                .map(other -> other.getEntity().getId())
+                .collect(Collectors.toList());
+    }
+
+    private static double distance(SurfaceEntity<Particle> a, SurfaceEntity<Particle> b, boolean periodic) {
+        double dx = Math.abs(b.getX() - a.getX());
+        double dy = Math.abs(b.getY() - a.getY());
+        if (periodic) {
+            dx = Math.min(dx, L - dx);
+            dy = Math.min(dy, L - dy);
+        }
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static List<Integer> ids(List<SurfaceEntity<Particle>> entities) {
+        return entities.stream().map(e -> e.getEntity().getId()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,41 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BruteForceTest {
+
+    private static final int L = 40;
+    private static final double RC = 1.0;
+
+    @Test
+    public void testTiledSameAsPlain() {
+        Random random = new Random(4321);
+        List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+        // More than two tiles, so diagonal, off diagonal and partial tiles are covered
+        for (int i = 0; i < 2600; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(0.1 + random.nextDouble() * 0.3), random.nextDouble() * L, random.nextDouble() * L));
+        }
+
+        NeighbourList expected = BruteForce.calculateNeighbourList(particles, RC);
+        for (int threads = 1; threads <= 4; threads *= 2) {
+            NeighbourList actual = BruteForce.calculateNeighbourList(particles, RC, threads);
+            assertEquals(expected.getPairCount(), actual.getPairCount());
+            for (int p = 0; p < particles.size(); p++) {
+                assertEquals(expected.getNeighbourCount(p), actual.getNeighbourCount(p));
+                for (int k = 0; k < expected.getNeighbourCount(p); k++) {
+                    assertEquals(expected.getNeighbour(p, k), actual.getNeighbour(p, k));
+                    assertEquals(expected.getDistance(p, k), actual.getDistance(p, k), 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.data.ParticleDataframe;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class CellIndexMethodTest {
+
+    private static final int L = 20;
+    private static final double RC = 1.0;
+    private static final double R = 0.25;
+    private static final int M = 13;
+
+    private final List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Random random = new Random(4321);
+        for (int i = 0; i < 800; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(R), random.nextDouble() * L, random.nextDouble() * L));
+        }
+    }
+
+    @Test
+    public void testParallelSameNeighboursAsSequential() {
+        Map<SurfaceEntity<Particle>, ParticleDataframe> expected = CellIndexMethod.calculate(L, M, RC, particles);
+
+        for (int threads = 2; threads <= 8; threads *= 2) {
+            Map<SurfaceEntity<Particle>, ParticleDataframe> actual = CellIndexMethod.calculate(L, M, RC, particles, threads);
+            assertEquals(expected.size(), actual.size());
+            for (SurfaceEntity<Particle> particle : particles) {
+                assertEquals(neighbourIds(expected.get(particle)), neighbourIds(actual.get(particle)));
+            }
+        }
+    }
+
+    private static Set<Integer> neighbourIds(ParticleDataframe df) {
+        return df.getNeighbours().keySet().stream().map(p -> p.getEntity().getId()).collect(Collectors.toSet());
+    }
+}
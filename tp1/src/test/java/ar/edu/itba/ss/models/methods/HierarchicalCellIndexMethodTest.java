@@ -0,0 +1,54 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.models.HierarchicalGrid;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class HierarchicalCellIndexMethodTest {
+
+    private static final int L = 40;
+    private static final double RC = 0.1;
+
+    private final List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        // Radii from 0.01 to 1, log uniform, so there are several levels and few large particles
+        Random random = new Random(31);
+        for (int i = 0; i < 3000; i++) {
+            double radius = 0.01 * Math.pow(100, random.nextDouble());
+            particles.add(new SurfaceEntity<>(new Particle(radius), random.nextDouble() * L, random.nextDouble() * L));
+        }
+    }
+
+    @Test
+    public void testSameAsSingleLevel() {
+        HierarchicalGrid grid = HierarchicalCellIndexMethod.toGrid(L, RC, particles);
+        assertTrue(grid.getLevels() > 2);
+
+        NeighbourList expected = BruteForce.calculateNeighbourList(particles, RC);
+        NeighbourList singleLevel = PrimitiveCellIndexMethod.calculateNeighbourList(L, (int) Math.floor(L / (RC + 2)), RC, particles);
+        NeighbourList actual = HierarchicalCellIndexMethod.calculateNeighbourList(L, RC, particles);
+
+        assertEquals(expected.getPairCount(), actual.getPairCount());
+        for (int p = 0; p < particles.size(); p++) {
+            assertEquals(neighbours(singleLevel, p), neighbours(actual, p));
+            assertEquals(neighbours(expected, p), neighbours(actual, p));
+        }
+    }
+
+    private static List<Integer> neighbours(NeighbourList neighbourList, int particle) {
+        List<Integer> neighbours = new ArrayList<>();
+        for (int k = 0; k < neighbourList.getNeighbourCount(particle); k++) {
+            neighbours.add(neighbourList.getNeighbour(particle, k));
+        }
+        return neighbours;
+    }
+}
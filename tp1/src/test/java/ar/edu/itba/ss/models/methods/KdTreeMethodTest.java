@@ -0,0 +1,79 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class KdTreeMethodTest {
+
+    private static final int L = 20;
+    private static final double RC = 1.0;
+
+    private final List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        // A few dense clusters plus uniform background, with repeated coordinates to stress the median splits
+        Random random = new Random(2024);
+        for (int c = 0; c < 4; c++) {
+            double cx = random.nextDouble() * L;
+            double cy = random.nextDouble() * L;
+            for (int i = 0; i < 250; i++) {
+                double x = Math.min(L, Math.max(0, cx + random.nextGaussian() * 0.8));
+                double y = Math.min(L, Math.max(0, cy + random.nextGaussian() * 0.8));
+                particles.add(new SurfaceEntity<>(new Particle(0.05 + random.nextDouble() * 0.2), x, y));
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            double x = random.nextInt(3) == 0 ? 0 : random.nextDouble() * L;
+            particles.add(new SurfaceEntity<>(new Particle(0.05 + random.nextDouble() * 0.2), x, random.nextDouble() * L));
+        }
+    }
+
+    @Test
+    public void testSameAsBruteForce() {
+        NeighbourList expected = BruteForce.calculateNeighbourList(particles, RC);
+        NeighbourList actual = KdTreeMethod.calculateNeighbourList(L, RC, particles, false);
+
+        assertEquals(expected.getPairCount(), actual.getPairCount());
+        for (int p = 0; p < particles.size(); p++) {
+            assertEquals(neighbours(expected, p), neighbours(actual, p));
+        }
+    }
+
+    @Test
+    public void testPeriodicSameAsClosestImages() {
+        NeighbourList actual = KdTreeMethod.calculateNeighbourList(L, RC, particles, true);
+
+        for (int i = 0; i < particles.size(); i++) {
+            Set<Integer> expected = new HashSet<>();
+            SurfaceEntity<Particle> current = particles.get(i);
+            for (int j = 0; j < particles.size(); j++) {
+                SurfaceEntity<Particle> other = particles.get(j);
+                double dx = Math.abs(current.getX() - other.getX());
+                double dy = Math.abs(current.getY() - other.getY());
+                dx = Math.min(dx, L - dx);
+                dy = Math.min(dy, L - dy);
+                double distance = Math.sqrt(dx * dx + dy * dy) - current.getEntity().getRadius() - other.getEntity().getRadius();
+                if (i != j && distance <= RC) {
+                    expected.add(j);
+                }
+            }
+            assertEquals(expected, new HashSet<>(neighbours(actual, i)));
+        }
+    }
+
+    private static List<Integer> neighbours(NeighbourList neighbourList, int particle) {
+        List<Integer> neighbours = new ArrayList<>();
+        for (int k = 0; k < neighbourList.getNeighbourCount(particle); k++) {
+            neighbours.add(neighbourList.getNeighbour(particle, k));
+        }
+        return neighbours;
+    }
+}
@@ -0,0 +1,85 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MSelectorTest {
+
+    private static final int L = 20;
+    private static final double RC = 1.0;
+
+    @Test
+    public void testMaxM() {
+        assertEquals(10, MSelector.maxM(L, RC, 0.5));
+        assertEquals(13, MSelector.maxM(L, RC, 0.25));
+        assertEquals(1, MSelector.maxM(L, 30, 0));
+    }
+
+    @Test
+    public void testBestMinimizesCost() {
+        int n = 1000;
+        double cellCost = 30;
+        // cellCost * M^2 + 4.5 N^2 / M^2 is minimal at M = (4.5 N^2 / cellCost)^(1/4), about 19.7
+        int best = MSelector.best(n, cellCost, 100);
+        assertTrue(best == 19 || best == 20);
+        for (int m = 1; m <= 100; m++) {
+            assertTrue(MSelector.cost(n, best, cellCost) <= MSelector.cost(n, m, cellCost));
+        }
+
+        // The optimum is past maxM
+        assertEquals(10, MSelector.best(n, cellCost, 10));
+        // Visiting cells costs more than every candidate
+        assertEquals(1, MSelector.best(10, 1e9, 10));
+    }
+
+    @Test
+    public void testCacheRoundTrip() throws IOException {
+        List<SurfaceEntity<Particle>> particles = particles(500);
+        File cache = Files.createTempFile("m_cache", ".properties").toFile();
+        try {
+            Properties stored = new Properties();
+            stored.setProperty(MSelector.cacheKey(particles.size(), L, RC, 0.25), "3");
+            try (Writer writer = new FileWriter(cache)) {
+                stored.store(writer, null);
+            }
+            assertEquals(3, MSelector.select(L, RC, 0.25, particles, cache));
+
+            // Another radius is calibrated and cached under its own key
+            int m = MSelector.select(L, RC, 0.5, particles, cache);
+            assertTrue(m >= 1 && m <= MSelector.maxM(L, RC, 0.5));
+            Properties loaded = new Properties();
+            try (Reader reader = new FileReader(cache)) {
+                loaded.load(reader);
+            }
+            assertEquals("3", loaded.getProperty(MSelector.cacheKey(particles.size(), L, RC, 0.25)));
+            assertEquals(String.valueOf(m), loaded.getProperty(MSelector.cacheKey(particles.size(), L, RC, 0.5)));
+            assertEquals(m, MSelector.select(L, RC, 0.5, particles, cache));
+        } finally {
+            Files.deleteIfExists(cache.toPath());
+        }
+    }
+
+    private static List<SurfaceEntity<Particle>> particles(int n) {
+        Random random = new Random(5);
+        List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(0.25), random.nextDouble() * L, random.nextDouble() * L));
+        }
+        return particles;
+    }
+}
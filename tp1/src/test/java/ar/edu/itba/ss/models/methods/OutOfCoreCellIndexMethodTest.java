@@ -0,0 +1,61 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class OutOfCoreCellIndexMethodTest {
+
+    private static final int L = 20;
+    private static final double RC = 1;
+
+    private final List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Random random = new Random(5);
+        for (int i = 0; i < 1500; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(random.nextDouble() * 0.25), random.nextDouble() * L, random.nextDouble() * L));
+        }
+        // On the borders, so they land in the last row and column
+        particles.add(new SurfaceEntity<>(new Particle(0.25), L, L));
+        particles.add(new SurfaceEntity<>(new Particle(0.25), L - 0.5, L));
+    }
+
+    @Test
+    public void testSameAsBruteForceForEveryBand() throws IOException {
+        NeighbourList expected = BruteForce.calculateNeighbourList(particles, RC);
+        int m = (int) Math.floor(L / (RC + 0.5));
+
+        for (int bandRows : new int[]{1, 2, 5, m}) {
+            NeighbourList.Builder builder = new NeighbourList.Builder(NeighbourList.ids(particles), true);
+            OutOfCoreCellIndexMethod.calculate(L, m, RC, sink -> {
+                for (int p = 0; p < particles.size(); p++) {
+                    SurfaceEntity<Particle> particle = particles.get(p);
+                    sink.accept(p, particle.getX(), particle.getY(), particle.getEntity().getRadius());
+                }
+            }, bandRows, builder::addPair);
+            NeighbourList actual = builder.build();
+
+            assertEquals(expected.getPairCount(), actual.getPairCount());
+            for (int p = 0; p < particles.size(); p++) {
+                assertEquals(neighbours(expected, p), neighbours(actual, p));
+            }
+        }
+    }
+
+    private static Set<Integer> neighbours(NeighbourList neighbourList, int particle) {
+        Set<Integer> neighbours = new HashSet<>();
+        for (int k = 0; k < neighbourList.getNeighbourCount(particle); k++) {
+            neighbours.add(neighbourList.getNeighbour(particle, k));
+        }
+        return neighbours;
+    }
+}
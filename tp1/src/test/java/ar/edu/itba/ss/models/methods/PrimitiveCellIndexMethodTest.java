@@ -0,0 +1,135 @@
+package ar.edu.itba.ss.models.methods;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.data.ParticleDataframe;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveCellIndexMethodTest {
+
+    private static final int L = 20;
+    private static final double RC = 1.0;
+    private static final double R = 0.25;
+    private static final int M = 13;
+
+    private final List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Random random = new Random(1234);
+        for (int i = 0; i < 800; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(R), random.nextDouble() * L, random.nextDouble() * L));
+        }
+    }
+
+    @Test
+    public void testSameNeighboursAsCellIndexMethod() {
+        Map<SurfaceEntity<Particle>, ParticleDataframe> expected = CellIndexMethod.calculate(L, M, RC, particles);
+        Map<SurfaceEntity<Particle>, ParticleDataframe> actual = PrimitiveCellIndexMethod.calculate(L, M, RC, particles);
+
+        for (SurfaceEntity<Particle> particle : particles) {
+            assertEquals(neighbourIds(expected.get(particle)), neighbourIds(actual.get(particle)));
+        }
+    }
+
+    @Test
+    public void testNeighbourListSameAsBruteForce() {
+        NeighbourList expected = BruteForce.calculateNeighbourList(particles, RC);
+        NeighbourList actual = PrimitiveCellIndexMethod.calculateNeighbourList(L, M, RC, particles);
+        NeighbourList morton = PrimitiveCellIndexMethod.calculateNeighbourList(L, M, RC, particles, true);
+        NeighbourList objects = CellIndexMethod.calculateNeighbourList(L, M, RC, particles, 4);
+
+        assertEquals(expected.getPairCount(), actual.getPairCount());
+        assertEquals(expected.getPairCount(), objects.getPairCount());
+        for (int p = 0; p < particles.size(); p++) {
+            assertEquals(neighbourIds(expected, p), neighbourIds(actual, p));
+            assertEquals(neighbourIds(expected, p), neighbourIds(morton, p));
+            assertEquals(neighbourIds(expected, p), neighbourIds(objects, p));
+        }
+    }
+
+    @Test
+    public void testSubCellsSameAsBruteForceWithFewerEvaluations() {
+        NeighbourList expected = BruteForce.calculateNeighbourList(particles, RC);
+        long previous = Long.MAX_VALUE;
+
+        for (int k = 1; k <= 3; k++) {
+            SearchCounters counters = new SearchCounters();
+            NeighbourList actual = PrimitiveCellIndexMethod.calculateNeighbourList(L, RC, k, particles, k == 2, counters);
+            assertEquals(expected.getPairCount(), counters.getAcceptedPairs());
+            for (int p = 0; p < particles.size(); p++) {
+                assertEquals(neighbourIds(expected, p), neighbourIds(actual, p));
+            }
+            assertTrue(counters.getDistanceEvaluations() < previous);
+            previous = counters.getDistanceEvaluations();
+        }
+    }
+
+    @Test
+    public void testPackedSameAsDoubleNearRc() {
+        // Large space, so absolute floats would not be precise enough, and pairs at about rc
+        int l = 5000;
+        Random random = new Random(99);
+        List<SurfaceEntity<Particle>> crowded = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            double x = l - 40 + random.nextDouble() * 40;
+            double y = l - 40 + random.nextDouble() * 40;
+            crowded.add(new SurfaceEntity<>(new Particle(R), x, y));
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double gap = RC + 2 * R + (random.nextDouble() - 0.5) * 1e-9;
+            crowded.add(new SurfaceEntity<>(new Particle(R), Math.min(l, x + gap * Math.cos(angle)), Math.min(l, y + gap * Math.sin(angle))));
+        }
+        int m = (int) Math.floor(l / (RC + 2 * R));
+
+        NeighbourList expected = PrimitiveCellIndexMethod.calculateNeighbourList(l, m, RC, crowded);
+        SearchCounters counters = new SearchCounters();
+        NeighbourList actual = PrimitiveCellIndexMethod.calculatePackedNeighbourList(l, m, RC, crowded, counters);
+
+        assertEquals(expected.getPairCount(), actual.getPairCount());
+        assertTrue(counters.getRechecks() > 0);
+        for (int p = 0; p < crowded.size(); p++) {
+            assertEquals(neighbourIds(expected, p), neighbourIds(actual, p));
+            for (int k = 0; k < actual.getNeighbourCount(p); k++) {
+                assertEquals(expected.getDistance(p, k), actual.getDistance(p, k), 1e-4);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelStatisticsSameAsNeighbourList() {
+        NeighbourList expected = BruteForce.calculateNeighbourList(particles, RC);
+        double[] radii = new double[particles.size()];
+        Arrays.fill(radii, R);
+        NeighbourStatistics statistics = PrimitiveCellIndexMethod.reduce(PrimitiveCellIndexMethod.toGrid(L, M, particles), RC,
+                () -> new NeighbourStatistics(radii, L, RC + 2 * R, 10), 4);
+
+        assertEquals(expected.getPairCount(), statistics.getPairs());
+        long[] histogram = statistics.getCoordinationHistogram();
+        double distanceSum = 0;
+        for (int p = 0; p < particles.size(); p++) {
+            histogram[expected.getNeighbourCount(p)]--;
+            for (int k = 0; k < expected.getNeighbourCount(p); k++) {
+                distanceSum += expected.getDistance(p, k);
+            }
+        }
+        assertTrue(Arrays.stream(histogram).allMatch(count -> count == 0));
+        assertEquals(distanceSum / (2.0 * expected.getPairCount()), statistics.getMeanDistance(), 1e-5);
+    }
+
+    private static List<Integer> neighbourIds(NeighbourList neighbourList, int particle) {
+        List<Integer> ids = new ArrayList<>();
+        neighbourList.neighbourIterator(particle).forEachRemaining((int neighbour) -> ids.add(neighbourList.getId(neighbour)));
+        return ids;
+    }
+
+    private static Set<Integer> neighbourIds(ParticleDataframe df) {
+        return df.getNeighbours().keySet().stream().map(p -> p.getEntity().getId()).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,136 @@
+package ar.edu.itba.ss.output.ovito;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.data.ParticleDataframe;
+import ar.edu.itba.ss.models.Cell;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.SquareGrid;
+import ar.edu.itba.ss.models.TraversalOffset;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import ar.edu.itba.ss.models.methods.CellIndexMethod;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class OvitoDumpWriterTest {
+
+    private static final int L = 10;
+    private static final int M = 4;
+    private static final double RC = 1.0;
+    private static final int TIME_STEP = 5;
+
+    @Test
+    public void testDumpMatchesScenes() throws IOException {
+        Random random = new Random(11);
+        List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+        // Values at the rounding boundary of four decimals, then random ones
+        double[][] edges = {{0.00005, 9.99995}, {1.00005, 2.99994999}, {4.12345, 0}, {L, 7.5}};
+        for (double[] edge : edges) {
+            particles.add(new SurfaceEntity<>(new Particle(0.00015), edge[0], edge[1]));
+        }
+        for (int i = 0; i < 60; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(random.nextDouble() * 0.3), random.nextDouble() * L, random.nextDouble() * L));
+        }
+
+        NeighbourList neighbourList = CellIndexMethod.calculateNeighbourList(L, M, RC, particles, 1);
+        Path dump = Files.createTempFile("ovito", ".dump");
+        try {
+            try (OvitoDumpWriter writer = new OvitoDumpWriter(dump, new SquareGrid<>(L, M), RC, TIME_STEP)) {
+                writer.writeScenes(particles, neighbourList, OvitoDumpWriter.select(neighbourList, null));
+            }
+            List<String> expected = normalize(scenes(particles, neighbourList.toDataframes(particles)));
+            List<String> actual = normalize(Files.readAllLines(dump));
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals("line " + i, expected.get(i), actual.get(i));
+            }
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    public void testSelectByIds() {
+        List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(0), i + 0.5, i + 0.5));
+        }
+        NeighbourList neighbourList = CellIndexMethod.calculateNeighbourList(L, M, RC, particles, 1);
+        int id = particles.get(3).getEntity().getId();
+        assertArrayEquals(new int[]{3}, OvitoDumpWriter.select(neighbourList, Collections.singletonList(id)));
+        assertEquals(5, OvitoDumpWriter.select(neighbourList, Collections.emptyList()).length);
+    }
+
+    // The frames the former Scene and OvitoDataFrame classes built, one per particle
+    private static List<String> scenes(List<SurfaceEntity<Particle>> particles, Map<SurfaceEntity<Particle>, ParticleDataframe> dataframes) {
+        SquareGrid<Particle> grid = new SquareGrid<>(L, M);
+        List<Cell<Particle>> allCells = grid.getCells().stream().flatMap(List::stream).collect(Collectors.toList());
+        int atoms = particles.size();
+        List<String> lines = new ArrayList<>();
+        int time = 0;
+        for (ParticleDataframe dataframe : dataframes.values()) {
+            SurfaceEntity<Particle> current = dataframe.getParticle();
+            Set<SurfaceEntity<Particle>> neighbours = new HashSet<>(dataframe.getNeighbours().keySet());
+            neighbours.remove(current);
+            Cell<Particle> currentCell = grid.locate(current.getX(), current.getY());
+            List<Cell<Particle>> neighbourCells = grid.getNeighbours(currentCell, TraversalOffset.L_NEIGHBOURS);
+            List<Cell<Particle>> otherCells = new ArrayList<>(allCells);
+            otherCells.removeAll(neighbourCells);
+
+            lines.add("ITEM: TIMESTEP");
+            lines.add(String.valueOf(time));
+            lines.add("ITEM: NUMBER OF ATOMS");
+            lines.add(String.valueOf(atoms + 1 + otherCells.size() + neighbourCells.size() + 1));
+            lines.add("ITEM: ATOMS id x y z type radius");
+            lines.add(line(current.getEntity().getId(), current.getX(), current.getY(), ParticleStatus.CURRENT, current.getEntity().getRadius()));
+            for (SurfaceEntity<Particle> neighbour : neighbours) {
+                lines.add(line(neighbour.getEntity().getId(), neighbour.getX(), neighbour.getY(), ParticleStatus.NEIGHBOUR, neighbour.getEntity().getRadius()));
+            }
+            for (SurfaceEntity<Particle> other : particles) {
+                if (other != current && !neighbours.contains(other)) {
+                    lines.add(line(other.getEntity().getId(), other.getX(), other.getY(), ParticleStatus.OTHER, other.getEntity().getRadius()));
+                }
+            }
+            lines.add(line(atoms + 1, current.getX(), current.getY(), ParticleStatus.RADIO, RC + current.getEntity().getRadius()));
+            int cellId = atoms + 2;
+            for (Cell<Particle> cell : otherCells) {
+                lines.add(line(cellId++, cell.getCenterX(), cell.getCenterY(), ParticleStatus.CELL, cell.getSize() / 2 - 0.05));
+            }
+            for (Cell<Particle> cell : neighbourCells) {
+                lines.add(line(cellId++, cell.getCenterX(), cell.getCenterY(), ParticleStatus.NEIGHBOURCELL, cell.getSize() / 2 - 0.05));
+            }
+            lines.add(line(cellId, currentCell.getCenterX(), currentCell.getCenterY(), ParticleStatus.CURRENT_CELL, currentCell.getSize() / 2 - 0.05));
+            time += TIME_STEP;
+        }
+        return lines;
+    }
+
+    private static String line(int id, double x, double y, ParticleStatus status, double radius) {
+        return String.format(Locale.ROOT, "%d %.4f %.4f %.4f %s %.4f", id, x, y, 0.0, status, radius);
+    }
+
+    // Scene listed the neighbours in hash set order, the writer in neighbour list order
+    private static List<String> normalize(List<String> lines) {
+        List<String> normalized = new ArrayList<>(lines);
+        int start = 0;
+        while (start < normalized.size()) {
+            int end = start;
+            while (end < normalized.size() && normalized.get(end).contains(" NEIGHBOUR ")) {
+                end++;
+            }
+            if (end > start) {
+                Collections.sort(normalized.subList(start, end));
+                start = end;
+            } else {
+                start++;
+            }
+        }
+        return normalized;
+    }
+}
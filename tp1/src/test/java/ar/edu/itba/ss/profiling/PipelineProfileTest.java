@@ -0,0 +1,60 @@
+package ar.edu.itba.ss.profiling;
+
+import ar.edu.itba.ss.data.NeighbourList;
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import ar.edu.itba.ss.models.methods.CellIndexMethod;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PipelineProfileTest {
+
+    private static final int L = 20;
+    private static final int M = 10;
+    private static final double RC = 1.0;
+
+    @Test
+    public void testCellIndexMethodPhases() throws IOException {
+        Random random = new Random(17);
+        List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(0.25), random.nextDouble() * L, random.nextDouble() * L));
+        }
+
+        PipelineProfile profile = new PipelineProfile();
+        NeighbourList neighbourList = CellIndexMethod.calculateNeighbourList(CellIndexMethod.toGrid(L, M, particles), RC, particles, 2, profile);
+
+        PipelineProfile.Phase traversal = profile.getPhase("traversal");
+        PipelineProfile.Phase build = profile.getPhase("build");
+        assertTrue(traversal.getNanos() >= 0 && build.getNanos() >= 0);
+        // L stencil with periodic neighbours: 5 cells for every particle
+        assertEquals(5L * particles.size(), traversal.getCellVisits());
+        assertTrue(traversal.getAcceptedPairs() >= neighbourList.getPairCount());
+        assertEquals(neighbourList.getPairCount(), build.getAcceptedPairs());
+        assertTrue(traversal.getCandidatePairs() >= traversal.getAcceptedPairs());
+
+        Path summary = Files.createTempFile("summary", ".json");
+        try {
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            parameters.put("m", M);
+            profile.writeSummary(summary, "CIM", parameters);
+
+            JsonNode root = new ObjectMapper().readTree(summary.toFile());
+            assertEquals("CIM", root.get("algorithm").asText());
+            assertEquals(M, root.get("parameters").get("m").asInt());
+            assertEquals(2, root.get("phases").size());
+            assertEquals("traversal", root.get("phases").get(0).get("name").asText());
+            assertEquals(traversal.getCandidatePairs(), root.get("phases").get(0).get("candidatePairs").asLong());
+        } finally {
+            Files.deleteIfExists(summary);
+        }
+    }
+}
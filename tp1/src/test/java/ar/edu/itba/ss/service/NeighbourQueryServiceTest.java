@@ -0,0 +1,116 @@
+package ar.edu.itba.ss.service;
+
+import ar.edu.itba.ss.models.Particle;
+import ar.edu.itba.ss.models.SpatialIndex;
+import ar.edu.itba.ss.models.entity.SurfaceEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class NeighbourQueryServiceTest {
+
+    private static final int L = 20;
+    private static final int M = 10;
+    private static final double RC = 1.0;
+
+    private final Random random = new Random(7);
+    private final List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+    private NeighbourQueryService service;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 500; i++) {
+            particles.add(new SurfaceEntity<>(new Particle(0.1 + random.nextDouble() * 0.2), random.nextDouble() * L, random.nextDouble() * L));
+        }
+        service = new NeighbourQueryService(L, M, particles);
+    }
+
+    @Test
+    public void testSessionAnswersEveryQuery() throws IOException {
+        SurfaceEntity<Particle> particle = particles.get(3);
+        int id = particle.getEntity().getId();
+        String session = "RADIUS 10 10 1.5\n"
+                + "BATCH 3\nNEIGHBOURS " + id + " " + RC + "\nKNN " + id + " 4\nKNN 0 4\n"
+                + "BATCH x\n"
+                + "STATS\nQUIT\nRADIUS 1 1 1\n";
+        StringWriter out = new StringWriter();
+        service.serve(new BufferedReader(new StringReader(session)), out);
+        String[] lines = out.toString().split("\n", -1);
+
+        SpatialIndex index = new SpatialIndex(L, M, particles);
+        assertEquals(ids(index.queryRadius(10, 10, 1.5)), lines[0]);
+        assertTrue(lines[1].startsWith("OK "));
+        assertEquals(ids(index.queryNeighbours(particle, RC)), lines[2]);
+        assertEquals(index.getGrid().kNearest(particle, 4).stream().map(p -> p.getEntity().getId().toString()).collect(Collectors.joining(" ")), lines[3]);
+        assertTrue(lines[4].startsWith("ERROR"));
+        assertTrue(lines[5].startsWith("OK "));
+        assertTrue(lines[6].startsWith("ERROR"));
+        assertEquals("OK", lines[7]);
+        assertTrue(lines[8].startsWith("STATS count=2 p50="));
+        assertEquals("OK", lines[9]);
+        // Nothing is answered after QUIT
+        assertEquals(11, lines.length);
+        assertEquals(2, service.getLatencies().getCount());
+    }
+
+    @Test
+    public void testClientOverLocalSocket() throws Exception {
+        List<String> queries = new ArrayList<>();
+        for (int q = 0; q < 50; q++) {
+            queries.add(String.format(Locale.ROOT, "RADIUS %.3f %.3f %.1f", random.nextDouble() * L, random.nextDouble() * L, RC));
+        }
+
+        try (ServerSocket server = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            Thread serving = new Thread(() -> {
+                try {
+                    service.serve(server);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            serving.start();
+
+            SpatialIndex index = new SpatialIndex(L, M, particles);
+            for (int client = 0; client < 2; client++) {
+                try (NeighbourQueryClient queryClient = new NeighbourQueryClient(server.getLocalPort())) {
+                    List<String> results = queryClient.batch(queries);
+                    for (int q = 0; q < queries.size(); q++) {
+                        String[] tokens = queries.get(q).split(" ");
+                        assertEquals(ids(index.queryRadius(Double.parseDouble(tokens[1]), Double.parseDouble(tokens[2]), RC)), results.get(q));
+                    }
+                    assertTrue(queryClient.stats().startsWith("STATS count=" + (client + 1)));
+                }
+            }
+            server.close();
+            serving.join(5000);
+            assertFalse(serving.isAlive());
+        }
+    }
+
+    @Test
+    public void testLatencyPercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        assertEquals(0, recorder.percentile(50));
+        for (int i = 1; i <= 1000; i++) {
+            recorder.record(i * 1000L);
+        }
+        assertEquals(500000, recorder.percentile(50));
+        assertEquals(990000, recorder.percentile(99));
+        assertEquals(1000000, recorder.percentile(100));
+        assertEquals("count=1000 p50=500.0 p90=900.0 p99=990.0 p99.9=999.0 max=1000.0", recorder.summary());
+    }
+
+    private static String ids(List<SurfaceEntity<Particle>> found) {
+        return found.stream().map(p -> p.getEntity().getId()).sorted().map(String::valueOf).collect(Collectors.joining(" "));
+    }
+}
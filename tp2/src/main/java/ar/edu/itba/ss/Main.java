@@ -35,6 +35,7 @@ public class Main {
         handler.parse(args);
 
         OffLaticeParameters offLaticeParameters = configReader.readConfig(handler.getArgument("-C"), OffLaticeParameters.class);
+        offLaticeParameters.requireEveryIteration();
         offLaticeParameters.particles = OffLaticeUtils.initializeParticles(offLaticeParameters);
 
         OffLatice offLatice = new OffLatice();
@@ -38,6 +38,7 @@ public class VisitorsMain {
         handler.parse(args);
 
         OffLaticeParameters offLaticeParameters = configReader.readConfig(handler.getArgument("-C"), OffLaticeParameters.class);
+        offLaticeParameters.requireEveryIteration();
 
         double visitingAreaRadius = handler.getDoubleArgument("--area-radius");
         offLaticeParameters.hasPeriodicBoundaryConditions = handler.getArgument("--conditions").equals("pbc");
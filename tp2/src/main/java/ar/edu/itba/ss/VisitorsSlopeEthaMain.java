@@ -44,6 +44,7 @@ public class VisitorsSlopeEthaMain {
         handler.parse(args);
 
         OffLaticeParameters offLaticeParameters = configReader.readConfig(handler.getArgument("-C"), OffLaticeParameters.class);
+        offLaticeParameters.requireEveryIteration();
 
         CSVBuilder builder = new CSVBuilder();
         try {
@@ -41,6 +41,7 @@ public class VisitorsTimeEthaMain {
         handler.parse(args);
 
         OffLaticeParameters offLaticeParameters = configReader.readConfig(handler.getArgument("-C"), OffLaticeParameters.class);
+        offLaticeParameters.requireEveryIteration();
 
         CSVBuilder builder = new CSVBuilder();
         try {
@@ -11,9 +11,19 @@ import java.util.Set;
 public class CIMNeighboursMap {
 
     private final Map<SurfaceEntity<Particle>, Set<SurfaceEntity<Particle>>> particlesNeighbours;
+    private final long distanceEvaluations;
 
     public CIMNeighboursMap(Map<SurfaceEntity<Particle>, Set<SurfaceEntity<Particle>>> particlesNeighbours) {
+        this(particlesNeighbours, 0);
+    }
+
+    public CIMNeighboursMap(Map<SurfaceEntity<Particle>, Set<SurfaceEntity<Particle>>> particlesNeighbours, long distanceEvaluations) {
         this.particlesNeighbours = particlesNeighbours;
+        this.distanceEvaluations = distanceEvaluations;
+    }
+
+    public long getDistanceEvaluations() {
+        return distanceEvaluations;
     }
 
     public Map<SurfaceEntity<Particle>, Set<SurfaceEntity<Particle>>> getParticlesNeighbours() {
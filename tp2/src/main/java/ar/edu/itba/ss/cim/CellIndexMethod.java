@@ -15,7 +15,16 @@ public class CellIndexMethod implements Algorithm<CellIndexMethodParameters> {
 
     @Override
     public void calculate(CellIndexMethodParameters params, EventListener eventListener) {
-        Grid<Particle> grid = new Grid<>(params.l, params.m);
+        int m = params.m;
+        int[][] stencil = TraversalOffset.L_NEIGHBOURS;
+        if (params.subcells > 1) {
+            double cutoff = params.rc + 2 * params.r;
+            m = Math.max(1, (int) Math.floor(params.subcells * params.l / cutoff));
+            stencil = TraversalOffset.halfShell(params.subcells, params.l / m, cutoff);
+        }
+        long distanceEvaluations = 0;
+
+        Grid<Particle> grid = new Grid<>(params.l, m);
         Map<SurfaceEntity<Particle>, Set<SurfaceEntity<Particle>>> particlesNeighbours = new LinkedHashMap<>();
         // Populate grid with particles
         for (SurfaceEntity<Particle> particle : params.particles) {
@@ -25,10 +34,11 @@ public class CellIndexMethod implements Algorithm<CellIndexMethodParameters> {
 
         for (SurfaceEntity<Particle> currentParticle : params.particles) {
             Cell<Particle> cell = grid.locate(currentParticle.getX(), currentParticle.getY());
-            List<Cell<Particle>> neighbourCells = grid.getPeriodicNeighbours(cell, TraversalOffset.L_NEIGHBOURS);
+            List<Cell<Particle>> neighbourCells = grid.getPeriodicNeighbours(cell, stencil);
             Set<SurfaceEntity<Particle>> currentParticleNeighbours = particlesNeighbours.get(currentParticle);
 
             for (Cell<Particle> c: neighbourCells) {
+                distanceEvaluations += c.getEntities().size();
                 for (SurfaceEntity<Particle> neighbourCandidate : c.getEntities()) {
                     if (calculatePeriodicDistance(currentParticle,neighbourCandidate,params.l)<= params.rc && !currentParticle.equals(neighbourCandidate)) {
                         currentParticleNeighbours.add(neighbourCandidate);
@@ -38,7 +48,7 @@ public class CellIndexMethod implements Algorithm<CellIndexMethodParameters> {
                 }
             }
         };
-        CIMNeighboursMap map = new CIMNeighboursMap(particlesNeighbours);
+        CIMNeighboursMap map = new CIMNeighboursMap(particlesNeighbours, distanceEvaluations);
         eventListener.emit(new Event<>(map));
     }
 
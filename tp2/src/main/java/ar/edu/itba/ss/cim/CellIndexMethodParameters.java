@@ -25,6 +25,12 @@ public class CellIndexMethodParameters extends AlgorithmParameters {
     @JsonProperty("r")
     public double r;
 
+    /**
+     * k > 1 uses cells of side (rc + 2r) / k with a half shell stencil, m is then derived from it.
+     */
+    @JsonProperty("subcells")
+    public int subcells = 1;
+
     public List<? extends SurfaceEntity<Particle>> particles;
 
     public CellIndexMethodParameters() {
@@ -36,6 +42,7 @@ public class CellIndexMethodParameters extends AlgorithmParameters {
         this.n = cim.n;
         this.r = cim.r;
         this.rc = cim.rc;
+        this.subcells = cim.subcells;
         this.particles = cim.particles;
     }
 
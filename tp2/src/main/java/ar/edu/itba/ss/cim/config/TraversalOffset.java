@@ -1,5 +1,8 @@
 package ar.edu.itba.ss.cim.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class TraversalOffset {
 
     public static final int[][] EIGHT_NEIGHBOURS = {
@@ -16,5 +19,27 @@ public class TraversalOffset {
             {0, 0}
     };
 
-}
+    /**
+     * Half shell stencil for cells of side cutoff / k: every offset up to k cells away with i > 0, or i == 0 and j > 0,
+     * plus {0, 0}. Cells whose closest points are further than cutoff are left out.
+     * For k = 1 it has the same cells as L_NEIGHBOURS.
+     */
+    public static int[][] halfShell(int k, double cellSize, double cutoff) {
+        List<int[]> offsets = new ArrayList<>();
+        for (int i = 0; i <= k; i++) {
+            for (int j = -k; j <= k; j++) {
+                if (i == 0 && j <= 0) {
+                    continue;
+                }
+                double dx = Math.max(0, Math.abs(j) - 1) * cellSize;
+                double dy = Math.max(0, i - 1) * cellSize;
+                if (dx * dx + dy * dy <= cutoff * cutoff) {
+                    offsets.add(new int[]{i, j});
+                }
+            }
+        }
+        offsets.add(new int[]{0, 0});
+        return offsets.toArray(new int[0][]);
+    }
 
+}
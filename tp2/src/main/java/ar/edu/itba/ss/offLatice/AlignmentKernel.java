@@ -0,0 +1,301 @@
+package ar.edu.itba.ss.offLatice;
+
+import ar.edu.itba.ss.cim.CellIndexMethodParameters;
+import ar.edu.itba.ss.cim.config.TraversalOffset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Neighbour search and alignment in one pass: the cell index method traversal adds the sin and cos of
+ * every neighbour found straight to the sums of both particles, no neighbour sets are built.
+ * <p>
+ * Neighbours are the particles at most rc apart, border to border, using the closest periodic image, the
+ * same criterion as {@link ar.edu.itba.ss.cim.CellIndexMethod}. The grid is reused between calls.
+ * <p>
+ * With a skin the traversal instead keeps the pairs at most rc + skin apart (a Verlet list) and the
+ * following calls only check those, until some particle moved more than skin / 2 since the list was built:
+ * until then no pair can have come from farther than rc + skin.
+ */
+public class AlignmentKernel {
+
+    private final int n;
+    private final double l;
+    private final double rc;
+    private final double skin;
+
+    // Cells of the grid and, for each one, the other cells whose pairs it is responsible for
+    private final int m;
+    private final int[][] cellNeighbours;
+    private final int[] cellStart;
+    private final int[] cellNext;
+    private final int[] cellParticles;
+    private final int[] particleCell;
+
+    // Verlet list, the neighbours of cellParticles[k] are listNeighbours[listEnd[k - 1] .. listEnd[k]), and the
+    // positions it was built with
+    private int[] listNeighbours = new int[16];
+    private final int[] listEnd;
+    private int listCount = 0;
+    private final double[] listX;
+    private final double[] listY;
+
+    private long pairCount = 0;
+    private long calls = 0;
+    private long builds = 0;
+
+    public AlignmentKernel(CellIndexMethodParameters cim, int n) {
+        this(cim, n, 0);
+    }
+
+    public AlignmentKernel(CellIndexMethodParameters cim, int n, double skin) {
+        this.n = n;
+        this.l = cim.l;
+        this.rc = cim.rc;
+        this.skin = skin;
+
+        // The cells have to cover the list radius
+        int[][] stencil = TraversalOffset.L_NEIGHBOURS;
+        int cells = cim.m;
+        double cutoff = cim.rc + skin + 2 * cim.r;
+        if (skin > 0) {
+            cells = Math.min(cells, Math.max(1, (int) Math.floor(l / cutoff)));
+        }
+        if (cim.subcells > 1) {
+            cells = Math.max(1, (int) Math.floor(cim.subcells * l / cutoff));
+            stencil = TraversalOffset.halfShell(cim.subcells, l / cells, cutoff);
+        }
+        this.m = cells;
+        this.cellNeighbours = cellNeighbours(m, stencil);
+        this.cellStart = new int[m * m + 1];
+        this.cellNext = new int[m * m];
+        this.cellParticles = new int[n];
+        this.particleCell = new int[n];
+        this.listEnd = new int[skin > 0 ? n : 0];
+        this.listX = new double[skin > 0 ? n : 0];
+        this.listY = new double[skin > 0 ? n : 0];
+    }
+
+    /**
+     * For every cell, the cells other than itself it pairs with. With few cells the periodic stencil reaches
+     * the same cell more than once, each pair of cells is kept only once.
+     */
+    private static int[][] cellNeighbours(int m, int[][] stencil) {
+        int[][] neighbours = new int[m * m][];
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                int cell = i * m + j;
+                List<Integer> cellNeighbours = new ArrayList<>();
+                for (int[] offset : stencil) {
+                    int neighbour = Math.floorMod(i + offset[0], m) * m + Math.floorMod(j + offset[1], m);
+                    long key = (long) Math.min(cell, neighbour) * m * m + Math.max(cell, neighbour);
+                    if (neighbour != cell && seen.add(key)) {
+                        cellNeighbours.add(neighbour);
+                    }
+                }
+                neighbours[cell] = cellNeighbours.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * Leaves in sinSum, cosSum and neighbourCount the sums over each particle and its neighbours of
+     * sin[j], cos[j] and 1. sin and cos are the ones of the current angles, computed once per particle.
+     */
+    public void accumulate(double[] x, double[] y, double[] radius, double[] sin, double[] cos,
+                           double[] sinSum, double[] cosSum, int[] neighbourCount) {
+        for (int i = 0; i < n; i++) {
+            sinSum[i] = sin[i];
+            cosSum[i] = cos[i];
+            neighbourCount[i] = 1;
+        }
+        calls++;
+        if (skin <= 0) {
+            builds++;
+            binParticles(x, y);
+            traverse(x, y, radius, sin, cos, sinSum, cosSum, neighbourCount);
+            return;
+        }
+
+        if (builds == 0 || hasMovedTooFar(x, y)) {
+            builds++;
+            binParticles(x, y);
+            buildList(x, y, radius);
+        }
+        traverseList(x, y, radius, sin, cos, sinSum, cosSum, neighbourCount);
+    }
+
+    private void traverseList(double[] x, double[] y, double[] radius, double[] sin, double[] cos,
+                              double[] sinSum, double[] cosSum, int[] neighbourCount) {
+        long pairs = 0;
+        int p = 0;
+        for (int k = 0; k < n; k++) {
+            int a = cellParticles[k];
+            double xa = x[a], ya = y[a], ra = radius[a];
+            double sinA = 0, cosA = 0;
+            int countA = 0;
+            for (; p < listEnd[k]; p++) {
+                int b = listNeighbours[p];
+                if (isNeighbour(xa, ya, ra, x[b], y[b], radius[b], rc)) {
+                    sinA += sin[b];
+                    cosA += cos[b];
+                    countA++;
+                    sinSum[b] += sin[a];
+                    cosSum[b] += cos[a];
+                    neighbourCount[b]++;
+                }
+            }
+            sinSum[a] += sinA;
+            cosSum[a] += cosA;
+            neighbourCount[a] += countA;
+            pairs += countA;
+        }
+        pairCount = pairs;
+    }
+
+    private void traverse(double[] x, double[] y, double[] radius, double[] sin, double[] cos,
+                          double[] sinSum, double[] cosSum, int[] neighbourCount) {
+        long pairs = 0;
+        for (int cell = 0; cell < m * m; cell++) {
+            int end = cellStart[cell + 1];
+            for (int k = cellStart[cell]; k < end; k++) {
+                int a = cellParticles[k];
+                double xa = x[a], ya = y[a], ra = radius[a];
+                double sinA = 0, cosA = 0;
+                int countA = 0;
+                for (int h = k + 1; h < end; h++) {
+                    int b = cellParticles[h];
+                    if (isNeighbour(xa, ya, ra, x[b], y[b], radius[b], rc)) {
+                        sinA += sin[b];
+                        cosA += cos[b];
+                        countA++;
+                        sinSum[b] += sin[a];
+                        cosSum[b] += cos[a];
+                        neighbourCount[b]++;
+                    }
+                }
+                for (int neighbour : cellNeighbours[cell]) {
+                    for (int h = cellStart[neighbour]; h < cellStart[neighbour + 1]; h++) {
+                        int b = cellParticles[h];
+                        if (isNeighbour(xa, ya, ra, x[b], y[b], radius[b], rc)) {
+                            sinA += sin[b];
+                            cosA += cos[b];
+                            countA++;
+                            sinSum[b] += sin[a];
+                            cosSum[b] += cos[a];
+                            neighbourCount[b]++;
+                        }
+                    }
+                }
+                sinSum[a] += sinA;
+                cosSum[a] += cosA;
+                neighbourCount[a] += countA;
+                pairs += countA;
+            }
+        }
+        pairCount = pairs;
+    }
+
+    private void buildList(double[] x, double[] y, double[] radius) {
+        double cutoff = rc + skin;
+        listCount = 0;
+        for (int cell = 0; cell < m * m; cell++) {
+            int end = cellStart[cell + 1];
+            for (int k = cellStart[cell]; k < end; k++) {
+                int a = cellParticles[k];
+                for (int h = k + 1; h < end; h++) {
+                    addToList(a, cellParticles[h], x, y, radius, cutoff);
+                }
+                for (int neighbour : cellNeighbours[cell]) {
+                    for (int h = cellStart[neighbour]; h < cellStart[neighbour + 1]; h++) {
+                        addToList(a, cellParticles[h], x, y, radius, cutoff);
+                    }
+                }
+                listEnd[k] = listCount;
+            }
+        }
+        System.arraycopy(x, 0, listX, 0, n);
+        System.arraycopy(y, 0, listY, 0, n);
+    }
+
+    private void addToList(int a, int b, double[] x, double[] y, double[] radius, double cutoff) {
+        if (!isNeighbour(x[a], y[a], radius[a], x[b], y[b], radius[b], cutoff)) {
+            return;
+        }
+        if (listCount == listNeighbours.length) {
+            listNeighbours = Arrays.copyOf(listNeighbours, 2 * listCount);
+        }
+        listNeighbours[listCount++] = b;
+    }
+
+    // Largest displacement since the list was built, through the closest periodic image
+    private boolean hasMovedTooFar(double[] x, double[] y) {
+        double limit = skin * skin / 4;
+        for (int i = 0; i < n; i++) {
+            double dx = Math.abs(x[i] - listX[i]);
+            double dy = Math.abs(y[i] - listY[i]);
+            dx = dx > l / 2 ? l - dx : dx;
+            dy = dy > l / 2 ? l - dy : dy;
+            if (dx * dx + dy * dy > limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Counting sort of the particles by cell
+    private void binParticles(double[] x, double[] y) {
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < n; i++) {
+            int cellX = (int) Math.min(x[i] * m / l, m - 1);
+            int cellY = (int) Math.min(y[i] * m / l, m - 1);
+            particleCell[i] = cellY * m + cellX;
+            cellStart[particleCell[i] + 1]++;
+        }
+        for (int c = 0; c < m * m; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        System.arraycopy(cellStart, 0, cellNext, 0, m * m);
+        for (int i = 0; i < n; i++) {
+            cellParticles[cellNext[particleCell[i]]++] = i;
+        }
+    }
+
+    private boolean isNeighbour(double xa, double ya, double ra, double xb, double yb, double rb, double cutoff) {
+        double dx = Math.abs(xa - xb);
+        double dy = Math.abs(ya - yb);
+        dx = dx > l / 2 ? l - dx : dx;
+        dy = dy > l / 2 ? l - dy : dy;
+        return Math.sqrt(dx * dx + dy * dy) - (ra + rb) <= cutoff;
+    }
+
+    /**
+     * Pairs of neighbours found in the last call.
+     */
+    public long getPairCount() {
+        return pairCount;
+    }
+
+    /**
+     * Times the cell index method traversal ran, every call without a skin.
+     */
+    public long getBuilds() {
+        return builds;
+    }
+
+    /**
+     * Fraction of the calls that searched the neighbours with the cell index method.
+     */
+    public double getRebuildRate() {
+        return calls == 0 ? 0 : (double) builds / calls;
+    }
+
+    public int getM() {
+        return m;
+    }
+}
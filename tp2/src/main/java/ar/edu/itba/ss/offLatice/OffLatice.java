@@ -1,23 +1,14 @@
 package ar.edu.itba.ss.offLatice;
 
-import ar.edu.itba.ss.cim.CIMNeighboursMap;
-import ar.edu.itba.ss.cim.CellIndexMethod;
-import ar.edu.itba.ss.cim.CellIndexMethodParameters;
-import ar.edu.itba.ss.cim.entity.Entity;
-import ar.edu.itba.ss.cim.entity.SurfaceEntity;
 import ar.edu.itba.ss.cim.models.Particle;
 import ar.edu.itba.ss.offLatice.entity.MovableSurfaceEntity;
 import ar.edu.itba.ss.simulation.algorithms.Algorithm;
 import ar.edu.itba.ss.simulation.events.Event;
 import ar.edu.itba.ss.simulation.events.EventListener;
-import ar.edu.itba.ss.simulation.events.EventProcessor;
-import ar.edu.itba.ss.simulation.events.EventsQueue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
 
 public class OffLatice implements Algorithm<OffLaticeParameters> {
 
@@ -27,69 +18,77 @@ public class OffLatice implements Algorithm<OffLaticeParameters> {
         List<MovableSurfaceEntity<Particle>> particles = OffLaticeUtils.initializeParticles(params);
         //TODO: Hay que emitir las particulas iniciales
 
-        for (int i = 0; i < params.maxIter; i++) {
-            Algorithm<CellIndexMethodParameters> cim = new CellIndexMethod();
-            CellIndexMethodParameters parameters = new CellIndexMethodParameters(params.cimParameters.l, params.cimParameters.m, params.cimParameters.n,
-                    params.cimParameters.rc, params.cimParameters.r, particles);
-
-            EventsQueue queue = new EventsQueue();
-            EventProcessor processor = new EventProcessor();
-            List<MovableSurfaceEntity<Particle>> newParticles = new ArrayList<>();
-            AtomicReference<Double> va = new AtomicReference<>((double) 0);
+        if (params.engine == OffLaticeParameters.Engine.ARRAYS) {
+            calculateArrays(params, particles, eventListener);
+            return;
+        }
 
-            processor.registerHandler(CIMNeighboursMap.class, (map) -> {
-                double speedXSum = 0;
-                double speedYSum = 0;
+        int n = particles.size();
+        AlignmentKernel kernel = new AlignmentKernel(params.cimParameters, n, params.skin);
+        double[] x = new double[n], y = new double[n], radius = new double[n];
+        double[] sin = new double[n], cos = new double[n];
+        double[] sinSum = new double[n], cosSum = new double[n];
+        int[] neighboursCount = new int[n];
 
-                for (Map.Entry<SurfaceEntity<Particle>, Set<SurfaceEntity<Particle>>> entry : map.getParticlesNeighbours().entrySet()) {
-                    double sinAngleSum = Math.sin(((MovableSurfaceEntity<Particle>) entry.getKey()).getAngle());
-                    double cosAngleSum = Math.cos(((MovableSurfaceEntity<Particle>) entry.getKey()).getAngle());
-                    int neighboursCount = 1;
+        for (int i = 0; i < params.maxIter; i++) {
+            for (int j = 0; j < n; j++) {
+                MovableSurfaceEntity<Particle> current = particles.get(j);
+                x[j] = current.getX();
+                y[j] = current.getY();
+                radius[j] = current.getEntity().getRadius();
+                sin[j] = Math.sin(current.getAngle());
+                cos[j] = Math.cos(current.getAngle());
+            }
+            kernel.accumulate(x, y, radius, sin, cos, sinSum, cosSum, neighboursCount);
 
-                    for (SurfaceEntity<Particle> p : entry.getValue()) {
-                        sinAngleSum += Math.sin(((MovableSurfaceEntity<Particle>) p).getAngle());
-                        cosAngleSum += Math.cos(((MovableSurfaceEntity<Particle>) p).getAngle());
-                        neighboursCount++;
-                    }
+            List<MovableSurfaceEntity<Particle>> newParticles = new ArrayList<>(n);
+            double speedXSum = 0;
+            double speedYSum = 0;
 
-                    double sinAvg = sinAngleSum / neighboursCount;
-                    double cosAvg = cosAngleSum / neighboursCount;
-                    double atan2Avg = Math.atan2(sinAvg, cosAvg);
+            for (int j = 0; j < n; j++) {
+                double sinAvg = sinSum[j] / neighboursCount[j];
+                double cosAvg = cosSum[j] / neighboursCount[j];
+                double atan2Avg = Math.atan2(sinAvg, cosAvg);
 
-                    double randomAngle = Math.random() * params.etha - params.etha / 2;
+                double randomAngle = Math.random() * params.etha - params.etha / 2;
 
-                    double newAngle;
-                    newAngle = randomAngle + atan2Avg;
+                double newAngle;
+                newAngle = randomAngle + atan2Avg;
 
-                    MovableSurfaceEntity<Particle> current = (MovableSurfaceEntity<Particle>) entry.getKey();
+                MovableSurfaceEntity<Particle> current = particles.get(j);
 
-                    double x = current.getX() + current.getXSpeed();
-                    double y = current.getY() + current.getYSpeed();
+                double newXPosition = current.getX() + current.getXSpeed();
+                double newYPosition = current.getY() + current.getYSpeed();
 
-                    boolean isOutOfBounds = (x < 0 || x > params.cimParameters.l ||  y < 0 || y > params.cimParameters.l);
+                boolean isOutOfBounds = (newXPosition < 0 || newXPosition > params.cimParameters.l ||  newYPosition < 0 || newYPosition > params.cimParameters.l);
 
-                    double newX = x % params.cimParameters.l;
-                    double newY = y % params.cimParameters.l;
+                double newX = newXPosition % params.cimParameters.l;
+                double newY = newYPosition % params.cimParameters.l;
 
-                    newX = newX < 0 ? newX + params.cimParameters.l : newX;
-                    newY = newY < 0 ? newY + params.cimParameters.l : newY;
+                newX = newX < 0 ? newX + params.cimParameters.l : newX;
+                newY = newY < 0 ? newY + params.cimParameters.l : newY;
 
-                    speedXSum += current.getXSpeed();
-                    speedYSum += current.getYSpeed();
+                speedXSum += current.getXSpeed();
+                speedYSum += current.getYSpeed();
 
-                    newParticles.add(new MovableSurfaceEntity<>(isOutOfBounds && !params.hasPeriodicBoundaryConditions ? new Particle() : entry.getKey().getEntity(), newX, newY, current.getSpeed(), newAngle));
-                }
+                newParticles.add(new MovableSurfaceEntity<>(isOutOfBounds && !params.hasPeriodicBoundaryConditions ? new Particle() : current.getEntity(), newX, newY, current.getSpeed(), newAngle));
+            }
 
-                double speed = Math.sqrt(Math.pow(speedXSum, 2) + Math.pow(speedYSum, 2));
-                va.set(speed / (params.cimParameters.n * params.speed));
+            double speed = Math.sqrt(Math.pow(speedXSum, 2) + Math.pow(speedYSum, 2));
+            double va = speed / (params.cimParameters.n * params.speed);
 
-            });
-            cim.calculate(parameters, queue::add);
-            for (Event<?> e : queue) {
-                processor.processEvent(e);
-            }
             particles = newParticles;
-            eventListener.emit(new Event<>(new OffLaticeState(newParticles, i, va.get())));
+            eventListener.emit(new Event<>(new OffLaticeState(newParticles, i, va, kernel.getBuilds())));
+        }
+    }
+
+    private void calculateArrays(OffLaticeParameters params, List<MovableSurfaceEntity<Particle>> particles, EventListener eventListener) {
+        OffLaticeEngine engine = new OffLaticeEngine(params, particles);
+        for (int i = 0; i < params.maxIter; i++) {
+            engine.step();
+            boolean snapshot = params.snapshotEvery > 0 && i % params.snapshotEvery == 0;
+            List<MovableSurfaceEntity<Particle>> state = snapshot ? engine.snapshot() : Collections.emptyList();
+            eventListener.emit(new Event<>(new OffLaticeState(state, i, engine.getVa(), engine.getNeighbourBuilds())));
         }
     }
 }
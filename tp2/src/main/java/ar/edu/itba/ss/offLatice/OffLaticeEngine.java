@@ -0,0 +1,167 @@
+package ar.edu.itba.ss.offLatice;
+
+import ar.edu.itba.ss.cim.models.Particle;
+import ar.edu.itba.ss.offLatice.entity.MovableSurfaceEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Off lattice (Vicsek) update over primitive arrays. Positions and angles live in two buffers that are
+ * swapped every step and the neighbour sums come from an {@link AlignmentKernel} that reuses its grid, so
+ * a step allocates nothing. Particles as objects are only built by {@link #snapshot()}.
+ * <p>
+ * The update is the one of {@link OffLatice}: neighbours are the particles at most rc apart (border to
+ * border, closest periodic image), the new angle is the average angle of the particle and its neighbours
+ * plus noise in [-etha / 2, etha / 2], and the particle moves with its current angle. Without periodic
+ * boundaries a particle that leaves the box comes back on the other side as a new particle.
+ */
+public class OffLaticeEngine {
+
+    private final int n;
+    private final double l;
+    private final double etha;
+    private final double speedNorm;
+    private final boolean periodic;
+
+    private final AlignmentKernel kernel;
+
+    private final Particle[] entities;
+    private final double[] radius;
+    private final double[] speed;
+    private double[] x, y, angle;
+    private double[] nextX, nextY, nextAngle;
+
+    private final double[] sin, cos;
+    private final double[] sinSum, cosSum;
+    private final int[] neighbourCount;
+
+    private int time = 0;
+    private double va = 0;
+
+    public OffLaticeEngine(OffLaticeParameters params, List<MovableSurfaceEntity<Particle>> particles) {
+        this.n = particles.size();
+        this.l = params.cimParameters.l;
+        this.etha = params.etha;
+        this.speedNorm = params.cimParameters.n * params.speed;
+        this.periodic = params.hasPeriodicBoundaryConditions;
+
+        this.kernel = new AlignmentKernel(params.cimParameters, n, params.skin);
+        this.entities = new Particle[n];
+        this.radius = new double[n];
+        this.speed = new double[n];
+        this.x = new double[n];
+        this.y = new double[n];
+        this.angle = new double[n];
+        this.nextX = new double[n];
+        this.nextY = new double[n];
+        this.nextAngle = new double[n];
+        for (int i = 0; i < n; i++) {
+            MovableSurfaceEntity<Particle> particle = particles.get(i);
+            entities[i] = particle.getEntity();
+            radius[i] = particle.getEntity().getRadius();
+            speed[i] = particle.getSpeed();
+            x[i] = particle.getX();
+            y[i] = particle.getY();
+            angle[i] = particle.getAngle();
+        }
+
+        this.sin = new double[n];
+        this.cos = new double[n];
+        this.sinSum = new double[n];
+        this.cosSum = new double[n];
+        this.neighbourCount = new int[n];
+    }
+
+    public void step() {
+        for (int i = 0; i < n; i++) {
+            sin[i] = Math.sin(angle[i]);
+            cos[i] = Math.cos(angle[i]);
+        }
+
+        kernel.accumulate(x, y, radius, sin, cos, sinSum, cosSum, neighbourCount);
+        move();
+    }
+
+    // New angles from the sums, new positions from the current angles, then the buffers are swapped
+    private void move() {
+        double speedXSum = 0;
+        double speedYSum = 0;
+        for (int i = 0; i < n; i++) {
+            double sinAvg = sinSum[i] / neighbourCount[i];
+            double cosAvg = cosSum[i] / neighbourCount[i];
+            nextAngle[i] = Math.random() * etha - etha / 2 + Math.atan2(sinAvg, cosAvg);
+
+            double xSpeed = cos[i] * speed[i];
+            double ySpeed = sin[i] * speed[i];
+            double newX = x[i] + xSpeed;
+            double newY = y[i] + ySpeed;
+            if (!periodic && (newX < 0 || newX > l || newY < 0 || newY > l)) {
+                entities[i] = new Particle();
+                radius[i] = 0;
+            }
+            newX = newX % l;
+            newY = newY % l;
+            nextX[i] = newX < 0 ? newX + l : newX;
+            nextY[i] = newY < 0 ? newY + l : newY;
+
+            speedXSum += xSpeed;
+            speedYSum += ySpeed;
+        }
+        va = Math.sqrt(speedXSum * speedXSum + speedYSum * speedYSum) / speedNorm;
+
+        double[] swap = x;
+        x = nextX;
+        nextX = swap;
+        swap = y;
+        y = nextY;
+        nextY = swap;
+        swap = angle;
+        angle = nextAngle;
+        nextAngle = swap;
+        time++;
+    }
+
+    /**
+     * The particles as they are now, the same objects {@link OffLatice} would emit.
+     */
+    public List<MovableSurfaceEntity<Particle>> snapshot() {
+        List<MovableSurfaceEntity<Particle>> particles = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            particles.add(new MovableSurfaceEntity<>(entities[i], x[i], y[i], speed[i], angle[i]));
+        }
+        return particles;
+    }
+
+    /**
+     * Steps done so far.
+     */
+    public int getTime() {
+        return time;
+    }
+
+    /**
+     * Order parameter of the velocities the particles had before the last step.
+     */
+    public double getVa() {
+        return va;
+    }
+
+    /**
+     * Pairs of neighbours found in the last step.
+     */
+    public long getPairCount() {
+        return kernel.getPairCount();
+    }
+
+    /**
+     * Times the neighbours were searched with the cell index method, see {@link AlignmentKernel#getBuilds()}.
+     */
+    public long getNeighbourBuilds() {
+        return kernel.getBuilds();
+    }
+
+    public int size() {
+        return n;
+    }
+}
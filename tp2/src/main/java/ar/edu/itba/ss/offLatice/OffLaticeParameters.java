@@ -27,6 +27,30 @@ public class OffLaticeParameters extends AlgorithmParameters {
     @JsonProperty("etha")
     public double etha;
 
+    /**
+     * ARRAYS runs the steps with {@link OffLaticeEngine} instead of particle objects.
+     */
+    @JsonProperty("engine")
+    public Engine engine = Engine.OBJECTS;
+
+    /**
+     * With the ARRAYS engine, the states carry the particles only every this many iterations (0 for never),
+     * the other ones only have time and va.
+     */
+    @JsonProperty("snapshot_every")
+    public int snapshotEvery = 1;
+
+    /**
+     * Extra radius of the Verlet neighbour lists, 0 to search the neighbours again every iteration. The lists
+     * are built with rc + skin and reused until some particle moved more than skin / 2.
+     */
+    @JsonProperty("skin")
+    public double skin = 0;
+
+    public enum Engine {
+        OBJECTS, ARRAYS
+    }
+
     public OffLaticeParameters() {
     }
 
@@ -37,6 +61,9 @@ public class OffLaticeParameters extends AlgorithmParameters {
         this.cimParameters = new CellIndexMethodParameters(offLaticeParameters.cimParameters);
         this.particles = new ArrayList<>(offLaticeParameters.particles);
         this.hasPeriodicBoundaryConditions = offLaticeParameters.hasPeriodicBoundaryConditions;
+        this.engine = offLaticeParameters.engine;
+        this.snapshotEvery = offLaticeParameters.snapshotEvery;
+        this.skin = offLaticeParameters.skin;
     }
 
 
@@ -45,4 +72,14 @@ public class OffLaticeParameters extends AlgorithmParameters {
         this.particles = particles;
         this.etha = etha;
     }
+
+    /**
+     * For the outputs that read the particles of every iteration, checked when the configuration is loaded so
+     * the run fails before it starts: with the ARRAYS engine snapshot_every has to be 1.
+     */
+    public void requireEveryIteration() {
+        if (engine == Engine.ARRAYS && snapshotEvery != 1) {
+            throw new IllegalArgumentException("This output needs the particles of every iteration, use snapshot_every = 1 instead of " + snapshotEvery);
+        }
+    }
 }
@@ -10,16 +10,30 @@ public class OffLaticeState {
     private final int time;
 
     private final double va;
+
+    private final long neighbourBuilds;
     public OffLaticeState(List<MovableSurfaceEntity<Particle>> particles, int time, double va) {
+        this(particles, time, va, time + 1);
+    }
+
+    public OffLaticeState(List<MovableSurfaceEntity<Particle>> particles, int time, double va, long neighbourBuilds) {
         this.particles = particles;
         this.time = time;
         this.va = va;
+        this.neighbourBuilds = neighbourBuilds;
     }
 
     public List<MovableSurfaceEntity<Particle>> getParticles() {
         return particles;
     }
 
+    /**
+     * False for the iterations the ARRAYS engine emits without a snapshot, see snapshot_every.
+     */
+    public boolean hasParticles() {
+        return !particles.isEmpty();
+    }
+
     public int getTime() {
         return time;
     }
@@ -27,6 +41,20 @@ public class OffLaticeState {
     public double getVa() {
         return va;
     }
+
+    /**
+     * Times the neighbours were searched with the cell index method up to this iteration.
+     */
+    public long getNeighbourBuilds() {
+        return neighbourBuilds;
+    }
+
+    /**
+     * Fraction of the iterations so far that searched the neighbours again, 1 without Verlet lists.
+     */
+    public double getRebuildRate() {
+        return (double) neighbourBuilds / (time + 1);
+    }
 }
 
 
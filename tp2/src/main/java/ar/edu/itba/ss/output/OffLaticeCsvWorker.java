@@ -32,6 +32,9 @@ public class OffLaticeCsvWorker implements QueueWorker {
         }
         for (Event<?> e : queue) {
             OffLaticeState state = (OffLaticeState) e.getPayload();
+            if (!state.hasParticles()) {
+                continue;
+            }
             List<MovableSurfaceEntity<Particle>> results = state.getParticles();
             for (MovableSurfaceEntity<Particle> movable : results) {
                 try {
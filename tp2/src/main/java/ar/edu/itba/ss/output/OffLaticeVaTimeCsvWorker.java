@@ -24,7 +24,7 @@ public class OffLaticeVaTimeCsvWorker implements QueueWorker {
         CSVBuilder builder = new CSVBuilder();
         String outputPath = this.outputPath;
         try {
-            builder.appendLine(outputPath,"n", "l", "etha","time","va");
+            builder.appendLine(outputPath,"n", "l", "etha","time","va","rebuild_rate");
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -36,7 +36,8 @@ public class OffLaticeVaTimeCsvWorker implements QueueWorker {
                         String.valueOf(parameters.cimParameters.l),
                         String.valueOf(parameters.etha),
                         String.valueOf(state.getTime()),
-                        String.valueOf(state.getVa()));
+                        String.valueOf(state.getVa()),
+                        String.valueOf(state.getRebuildRate()));
             } catch (IOException ex) {
                 throw new RuntimeException(ex);
             }
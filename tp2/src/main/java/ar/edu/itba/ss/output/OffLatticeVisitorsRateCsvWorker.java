@@ -36,6 +36,9 @@ public class OffLatticeVisitorsRateCsvWorker extends OffLatticeVisitorsVizCsvWor
 
         for (Event<?> e : queue) {
             OffLaticeState state = (OffLaticeState) e.getPayload();
+            if (!state.hasParticles()) {
+                throw new IllegalStateException("Visitors need the particles of every iteration, use snapshot_every = 1");
+            }
             List<MovableSurfaceEntity<Particle>> results = state.getParticles();
 
             int visitingCount = 0;
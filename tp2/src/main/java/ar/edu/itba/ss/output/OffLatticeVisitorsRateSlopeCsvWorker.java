@@ -30,6 +30,9 @@ public class OffLatticeVisitorsRateSlopeCsvWorker extends OffLatticeVisitorsRate
         List<Double> slopes = new ArrayList<>();
         for (Event<?> e : queue) {
             OffLaticeState state = (OffLaticeState) e.getPayload();
+            if (!state.hasParticles()) {
+                throw new IllegalStateException("Visitors need the particles of every iteration, use snapshot_every = 1");
+            }
             List<MovableSurfaceEntity<Particle>> results = state.getParticles();
 
             for (MovableSurfaceEntity<Particle> movable : results) {
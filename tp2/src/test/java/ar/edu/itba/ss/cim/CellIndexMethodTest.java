@@ -10,6 +10,8 @@ import org.junit.Test;
 import java.io.InputStream;
 import java.util.*;
 
+import static org.junit.Assert.*;
+
 public class CellIndexMethodTest {
 
     private List<SurfaceEntity<Particle>> particles = new ArrayList<>();
@@ -53,4 +55,57 @@ public class CellIndexMethodTest {
             }
         }
     }
+
+    @Test
+    public void testSubcellsSameNeighboursWithFewerEvaluations() {
+        double l = 100;
+        double rc = 6;
+        double r = 0.37;
+        Random random = new Random(8);
+        List<SurfaceEntity<Particle>> randomParticles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            randomParticles.add(new SurfaceEntity<>(new Particle(r), random.nextDouble() * l, random.nextDouble() * l));
+        }
+        // Particles on the borders, so the periodic images are checked too
+        randomParticles.add(new SurfaceEntity<>(new Particle(r), 0, 0));
+        randomParticles.add(new SurfaceEntity<>(new Particle(r), l, l / 2));
+        randomParticles.add(new SurfaceEntity<>(new Particle(r), l - 1, l - 1));
+
+        CIMNeighboursMap expected = neighbours(new CellIndexMethodParameters(l, 14, randomParticles.size(), rc, r, randomParticles));
+        for (Map.Entry<SurfaceEntity<Particle>, Set<SurfaceEntity<Particle>>> entry : expected.getParticlesNeighbours().entrySet()) {
+            assertEquals(bruteForce(entry.getKey(), randomParticles, l, rc), entry.getValue());
+        }
+
+        long previous = expected.getDistanceEvaluations();
+        for (int subcells = 2; subcells <= 3; subcells++) {
+            CellIndexMethodParameters params = new CellIndexMethodParameters(l, 14, randomParticles.size(), rc, r, randomParticles);
+            params.subcells = subcells;
+            CIMNeighboursMap actual = neighbours(params);
+            assertEquals(expected.getParticlesNeighbours(), actual.getParticlesNeighbours());
+            assertTrue(subcells + " subcells: " + actual.getDistanceEvaluations() + " evaluations, " + previous + " before",
+                    actual.getDistanceEvaluations() < previous);
+            previous = actual.getDistanceEvaluations();
+        }
+    }
+
+    private static CIMNeighboursMap neighbours(CellIndexMethodParameters params) {
+        EventsQueue queue = new EventsQueue();
+        new CellIndexMethod().calculate(params, queue::add);
+        return (CIMNeighboursMap) queue.iterator().next().getPayload();
+    }
+
+    private static Set<SurfaceEntity<Particle>> bruteForce(SurfaceEntity<Particle> particle, List<SurfaceEntity<Particle>> particles, double l, double rc) {
+        Set<SurfaceEntity<Particle>> neighbours = new HashSet<>();
+        for (SurfaceEntity<Particle> other : particles) {
+            double dx = Math.abs(particle.getX() - other.getX());
+            double dy = Math.abs(particle.getY() - other.getY());
+            dx = Math.min(dx, l - dx);
+            dy = Math.min(dy, l - dy);
+            double radiusSum = particle.getEntity().getRadius() + other.getEntity().getRadius();
+            if (other != particle && Math.sqrt(dx * dx + dy * dy) - radiusSum <= rc) {
+                neighbours.add(other);
+            }
+        }
+        return neighbours;
+    }
 }
@@ -0,0 +1,111 @@
+package ar.edu.itba.ss.offLatice;
+
+import ar.edu.itba.ss.cim.CIMNeighboursMap;
+import ar.edu.itba.ss.cim.CellIndexMethod;
+import ar.edu.itba.ss.cim.CellIndexMethodParameters;
+import ar.edu.itba.ss.cim.entity.SurfaceEntity;
+import ar.edu.itba.ss.cim.models.Particle;
+import ar.edu.itba.ss.simulation.events.EventsQueue;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class AlignmentKernelTest {
+
+    private static final double L = 100;
+    private static final int N = 500;
+    private static final double RC = 6;
+    private static final double R = 0.37;
+
+    @Test
+    public void testSumsMatchCellIndexMethodNeighbours() {
+        for (int subcells : new int[]{1, 2}) {
+            Random random = new Random(subcells);
+            List<SurfaceEntity<Particle>> particles = new ArrayList<>();
+            double[] x = new double[N], y = new double[N], radius = new double[N];
+            double[] sin = new double[N], cos = new double[N];
+            for (int i = 0; i < N; i++) {
+                x[i] = random.nextDouble() * L;
+                y[i] = random.nextDouble() * L;
+                radius[i] = R;
+                double angle = random.nextDouble() * 2 * Math.PI;
+                sin[i] = Math.sin(angle);
+                cos[i] = Math.cos(angle);
+                particles.add(new SurfaceEntity<>(new Particle(R), x[i], y[i]));
+            }
+
+            CellIndexMethodParameters params = new CellIndexMethodParameters(L, 14, N, RC, R, particles);
+            params.subcells = subcells;
+            EventsQueue queue = new EventsQueue();
+            new CellIndexMethod().calculate(params, queue::add);
+            Map<SurfaceEntity<Particle>, Set<SurfaceEntity<Particle>>> neighbours =
+                    ((CIMNeighboursMap) queue.iterator().next().getPayload()).getParticlesNeighbours();
+
+            double[] sinSum = new double[N], cosSum = new double[N];
+            int[] neighbourCount = new int[N];
+            AlignmentKernel kernel = new AlignmentKernel(params, N);
+            kernel.accumulate(x, y, radius, sin, cos, sinSum, cosSum, neighbourCount);
+
+            long pairs = 0;
+            for (int i = 0; i < N; i++) {
+                double expectedSin = sin[i];
+                double expectedCos = cos[i];
+                Set<SurfaceEntity<Particle>> set = neighbours.getOrDefault(particles.get(i), Collections.emptySet());
+                for (SurfaceEntity<Particle> neighbour : set) {
+                    int j = particles.indexOf(neighbour);
+                    expectedSin += sin[j];
+                    expectedCos += cos[j];
+                }
+                pairs += set.size();
+                assertEquals(set.size() + 1, neighbourCount[i]);
+                assertEquals(expectedSin, sinSum[i], 1e-9);
+                assertEquals(expectedCos, cosSum[i], 1e-9);
+            }
+            assertEquals(pairs / 2, kernel.getPairCount());
+        }
+    }
+
+    @Test
+    public void testVerletListMatchesSearchingEveryStep() {
+        Random random = new Random(7);
+        double[] x = new double[N], y = new double[N], radius = new double[N], angle = new double[N];
+        double[] sin = new double[N], cos = new double[N];
+        for (int i = 0; i < N; i++) {
+            x[i] = random.nextDouble() * L;
+            y[i] = random.nextDouble() * L;
+            radius[i] = R;
+            angle[i] = random.nextDouble() * 2 * Math.PI;
+        }
+
+        CellIndexMethodParameters params = new CellIndexMethodParameters(L, 14, N, RC, R, null);
+        AlignmentKernel everyStep = new AlignmentKernel(params, N);
+        AlignmentKernel verlet = new AlignmentKernel(params, N, 1);
+        double[] sinSum = new double[N], cosSum = new double[N], verletSinSum = new double[N], verletCosSum = new double[N];
+        int[] neighbourCount = new int[N], verletNeighbourCount = new int[N];
+
+        int steps = 200;
+        for (int step = 0; step < steps; step++) {
+            for (int i = 0; i < N; i++) {
+                sin[i] = Math.sin(angle[i]);
+                cos[i] = Math.cos(angle[i]);
+            }
+            everyStep.accumulate(x, y, radius, sin, cos, sinSum, cosSum, neighbourCount);
+            verlet.accumulate(x, y, radius, sin, cos, verletSinSum, verletCosSum, verletNeighbourCount);
+            assertArrayEquals(neighbourCount, verletNeighbourCount);
+            assertArrayEquals(sinSum, verletSinSum, 1e-9);
+            assertArrayEquals(cosSum, verletCosSum, 1e-9);
+            assertEquals(everyStep.getPairCount(), verlet.getPairCount());
+
+            for (int i = 0; i < N; i++) {
+                x[i] = ((x[i] + 0.03 * cos[i]) % L + L) % L;
+                y[i] = ((y[i] + 0.03 * sin[i]) % L + L) % L;
+                angle[i] += random.nextDouble() - 0.5;
+            }
+        }
+        assertEquals(1.0, everyStep.getRebuildRate(), 0);
+        // Nobody moves more than skin / 2 = 0.5 in 16 steps of 0.03
+        assertTrue(verlet.getBuilds() <= steps / 16 + 1);
+    }
+}
@@ -0,0 +1,115 @@
+package ar.edu.itba.ss.offLatice;
+
+import ar.edu.itba.ss.cim.CellIndexMethodParameters;
+import ar.edu.itba.ss.cim.models.Particle;
+import ar.edu.itba.ss.offLatice.entity.MovableSurfaceEntity;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OffLaticeEngineTest {
+
+    private static final double L = 10;
+    private static final int N = 400;
+    private static final double RC = 1;
+    private static final double SPEED = 0.03;
+
+    @Test
+    public void testStepMatchesVicsekUpdate() {
+        for (int m : new int[]{1, 2, 9}) {
+            OffLaticeParameters params = parameters(m, 0);
+            List<MovableSurfaceEntity<Particle>> particles = particles(new Random(m));
+            OffLaticeEngine engine = new OffLaticeEngine(params, particles);
+
+            for (int step = 0; step < 5; step++) {
+                List<MovableSurfaceEntity<Particle>> expected = bruteForceStep(particles);
+                engine.step();
+                particles = engine.snapshot();
+                assertEquals(N, particles.size());
+                for (int i = 0; i < N; i++) {
+                    assertEquals(expected.get(i).getX(), particles.get(i).getX(), 1e-9);
+                    assertEquals(expected.get(i).getY(), particles.get(i).getY(), 1e-9);
+                    assertEquals(expected.get(i).getAngle(), particles.get(i).getAngle(), 1e-9);
+                }
+            }
+            assertEquals(5, engine.getTime());
+        }
+    }
+
+    @Test
+    public void testParticlesLeavingAnOpenBoxAreNew() {
+        OffLaticeParameters params = parameters(9, 0);
+        params.hasPeriodicBoundaryConditions = false;
+        List<MovableSurfaceEntity<Particle>> particles = new ArrayList<>();
+        particles.add(new MovableSurfaceEntity<>(new Particle(0), L - 0.01, 5, SPEED, 0));
+        particles.add(new MovableSurfaceEntity<>(new Particle(0), 2, 2, SPEED, Math.PI));
+        OffLaticeEngine engine = new OffLaticeEngine(params, particles);
+
+        engine.step();
+        List<MovableSurfaceEntity<Particle>> after = engine.snapshot();
+        assertNotEquals(particles.get(0).getEntity().getId(), after.get(0).getEntity().getId());
+        assertEquals(0.02, after.get(0).getX(), 1e-9);
+        assertSame(particles.get(1).getEntity(), after.get(1).getEntity());
+    }
+
+    @Test
+    public void testStepsDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        OffLaticeEngine engine = new OffLaticeEngine(parameters(9, 0.5), particles(new Random(3)));
+        for (int step = 0; step < 200; step++) {
+            engine.step();
+        }
+
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int step = 0; step < 200; step++) {
+            engine.step();
+        }
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        // Only the call that reads the counter may allocate
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    private static OffLaticeParameters parameters(int m, double etha) {
+        OffLaticeParameters params = new OffLaticeParameters();
+        params.cimParameters = new CellIndexMethodParameters(L, m, N, RC, 0, null);
+        params.speed = SPEED;
+        params.etha = etha;
+        return params;
+    }
+
+    private static List<MovableSurfaceEntity<Particle>> particles(Random random) {
+        List<MovableSurfaceEntity<Particle>> particles = new ArrayList<>();
+        for (int i = 0; i < N; i++) {
+            particles.add(new MovableSurfaceEntity<>(new Particle(0), random.nextDouble() * L, random.nextDouble() * L, SPEED, random.nextDouble() * 2 * Math.PI));
+        }
+        return particles;
+    }
+
+    // One noiseless step over every pair, with the closest periodic image
+    private static List<MovableSurfaceEntity<Particle>> bruteForceStep(List<MovableSurfaceEntity<Particle>> particles) {
+        List<MovableSurfaceEntity<Particle>> next = new ArrayList<>();
+        for (MovableSurfaceEntity<Particle> current : particles) {
+            double sinSum = 0;
+            double cosSum = 0;
+            for (MovableSurfaceEntity<Particle> other : particles) {
+                double dx = Math.abs(current.getX() - other.getX());
+                double dy = Math.abs(current.getY() - other.getY());
+                dx = Math.min(dx, L - dx);
+                dy = Math.min(dy, L - dy);
+                if (Math.sqrt(dx * dx + dy * dy) <= RC) {
+                    sinSum += Math.sin(other.getAngle());
+                    cosSum += Math.cos(other.getAngle());
+                }
+            }
+            double x = (current.getX() + current.getXSpeed() + L) % L;
+            double y = (current.getY() + current.getYSpeed() + L) % L;
+            next.add(new MovableSurfaceEntity<>(current.getEntity(), x, y, SPEED, Math.atan2(sinSum, cosSum)));
+        }
+        return next;
+    }
+}
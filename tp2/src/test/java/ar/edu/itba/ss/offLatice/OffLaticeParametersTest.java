@@ -0,0 +1,46 @@
+package ar.edu.itba.ss.offLatice;
+
+import ar.edu.itba.ss.input.JsonConfigReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class OffLaticeParametersTest {
+
+    @Test
+    public void testEveryIterationAcceptsSnapshotsOfEveryIteration() throws IOException {
+        load("\"engine\": \"ARRAYS\", \"snapshot_every\": 1").requireEveryIteration();
+        load("\"engine\": \"ARRAYS\"").requireEveryIteration();
+        // OBJECTS always emits the particles
+        load("\"engine\": \"OBJECTS\", \"snapshot_every\": 10").requireEveryIteration();
+    }
+
+    @Test
+    public void testEveryIterationRejectsSparseSnapshots() throws IOException {
+        for (int snapshotEvery : new int[]{0, 10}) {
+            OffLaticeParameters params = load("\"engine\": \"ARRAYS\", \"snapshot_every\": " + snapshotEvery);
+            try {
+                params.requireEveryIteration();
+                fail("snapshot_every = " + snapshotEvery + " was accepted");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("snapshot_every = 1"));
+            }
+        }
+    }
+
+    private static OffLaticeParameters load(String fields) throws IOException {
+        Path config = Files.createTempFile("config", ".json");
+        try {
+            String json = "{\"cim\": {\"l\": 10, \"n\": 40, \"rc\": 1, \"r\": 0}, \"speed\": 0.03, \"max_iterations\": 5, \"etha\": 0.1, " + fields + "}";
+            Files.write(config, json.getBytes(StandardCharsets.UTF_8));
+            return new JsonConfigReader().readConfig(config.toString(), OffLaticeParameters.class);
+        } finally {
+            Files.delete(config);
+        }
+    }
+}